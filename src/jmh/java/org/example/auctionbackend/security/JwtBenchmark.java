@@ -0,0 +1,104 @@
+package org.example.auctionbackend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.example.auctionbackend.cache.RevokedSessionIndex;
+import org.example.auctionbackend.cache.UserStateCache;
+import org.example.auctionbackend.cache.VerifiedTokenCache;
+import org.example.auctionbackend.repository.RefreshTokenFamilyRepository;
+import org.example.auctionbackend.repository.UserRepository;
+import org.example.auctionbackend.repository.projection.UserStateView;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de l'authentification JWT par requête : lecture du sujet, validation
+ * de la signature, et passage complet dans JwtAuthenticationFilter
+ * (chaîne et dépôts simulés, sans base ; état utilisateur en cache, session
+ * non révoquée écartée par le filtre de Bloom).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String USERNAME = "alice";
+
+    private JwtUtils jwtUtils;
+    /** Même vérification sans cache (taille 0) : coût d'un premier passage */
+    private JwtUtils uncachedJwtUtils;
+    private JwtAuthenticationFilter filter;
+    private FilterChain chain;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(new VerifiedTokenCache(new SimpleMeterRegistry(), 10_000));
+        uncachedJwtUtils = new JwtUtils(new VerifiedTokenCache(new SimpleMeterRegistry(), 0));
+        token = jwtUtils.generateAccessToken(USERNAME, Set.of("ROLE_USER"), UUID.randomUUID().toString());
+
+        // stubOnly : aucune invocation mémorisée pendant la mesure
+        UserRepository userRepository = Mockito.mock(UserRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(userRepository.findStateByUsername(USERNAME))
+                .thenReturn(Optional.of(new UserStateView(false, null, null)));
+        UserStateCache userStateCache = new UserStateCache(new SimpleMeterRegistry(), userRepository,
+                10_000, Duration.ofMinutes(10));
+        RevokedSessionIndex revokedSessions = new RevokedSessionIndex(new SimpleMeterRegistry(),
+                Mockito.mock(RefreshTokenFamilyRepository.class, Mockito.withSettings().stubOnly()), 100_000, 0.01);
+        filter = new JwtAuthenticationFilter(jwtUtils, userStateCache, revokedSessions, new SimpleMeterRegistry());
+        chain = Mockito.mock(FilterChain.class, Mockito.withSettings().stubOnly());
+
+        request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtUtils.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromTokenUncached() {
+        return uncachedJwtUtils.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        try {
+            filter.doFilterInternal(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            // fin de requête : le contexte ne doit pas court-circuiter l'itération suivante
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.auctionbackend.service;
+
+import org.example.auctionbackend.cache.CategoryIndex;
+import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.repository.CategoryRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution "catégorie + descendants" utilisée par LotServiceImpl.collectCategoryIds(...)
+ * pour filtrer les listes, et reconstruction de l'index correspondant.
+ *
+ * Arborescence : {@code roots} racines, chacune avec {@code fanOut} enfants
+ * ayant chacun {@code fanOut} petits-enfants.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryLookupBenchmark {
+
+    @Param({"10"})
+    public int roots;
+
+    @Param({"10"})
+    public int fanOut;
+
+    private List<Category> categories;
+    private CategoryServiceImpl categoryService;
+    private Long rootId;
+    private Long leafId;
+
+    @Setup
+    public void setUp() {
+        categories = new ArrayList<>();
+        long nextId = 1;
+        for (int r = 0; r < roots; r++) {
+            Category root = Category.builder().id(nextId++).name("root-" + r).build();
+            categories.add(root);
+            for (int c = 0; c < fanOut; c++) {
+                Category child = Category.builder().id(nextId++).name("child-" + r + "-" + c).parent(root).build();
+                categories.add(child);
+                for (int g = 0; g < fanOut; g++) {
+                    categories.add(Category.builder().id(nextId++).name("leaf-" + r + "-" + c + "-" + g)
+                            .parent(child).build());
+                }
+            }
+        }
+        rootId = categories.get(0).getId();
+        leafId = categories.get(categories.size() - 1).getId();
+
+        // stubOnly : aucune invocation mémorisée pendant la mesure
+        CategoryRepository repository = Mockito.mock(CategoryRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(repository.findAll()).thenReturn(categories);
+        categoryService = new CategoryServiceImpl(repository);
+        categoryService.reload();
+    }
+
+    @Benchmark
+    public Set<Long> collectCategoryIdsRoot() {
+        return categoryService.findSelfAndDescendantIds(rootId);
+    }
+
+    @Benchmark
+    public Set<Long> collectCategoryIdsLeaf() {
+        return categoryService.findSelfAndDescendantIds(leafId);
+    }
+
+    @Benchmark
+    public CategoryIndex buildIndex() {
+        return CategoryIndex.build(categories);
+    }
+}
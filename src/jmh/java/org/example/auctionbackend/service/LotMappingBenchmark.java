@@ -0,0 +1,90 @@
+package org.example.auctionbackend.service;
+
+import org.example.auctionbackend.dto.LotDTO;
+import org.example.auctionbackend.dto.LotDetailDTO;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.projection.BidView;
+import org.example.auctionbackend.repository.projection.LotDetailView;
+import org.example.auctionbackend.repository.projection.LotSummaryView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping des lectures de lots (liste, détail) et calcul du statut.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LotMappingBenchmark {
+
+    private LotSummaryView summary;
+    private LotDetailView detail;
+    private List<BidView> topBids;
+    private Lot lot;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        now = LocalDateTime.now();
+        LocalDateTime start = now.minusHours(2);
+        LocalDateTime end = now.plusDays(3);
+
+        summary = new LotSummaryView(42L, "Montre ancienne", "Montre de poche en argent, 1920",
+                7L, 100.0, 250.0, start, end, 12L);
+        detail = new LotDetailView(42L, "Montre ancienne", "Montre de poche en argent, 1920",
+                7L, 100.0, 250.0, start, end, "alice", "bob");
+        topBids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            topBids.add(new BidView(1_000L + i, 42L, 10L + i, "user" + i, 250.0 - i * 10, now.minusMinutes(i)));
+        }
+        lot = Lot.builder()
+                .id(42L)
+                .startDate(start)
+                .endDate(end)
+                .status(LotStatus.IN_PROGRESS)
+                .currentLeader(User.builder().id(12L).build())
+                .build();
+    }
+
+    @Benchmark
+    public LotDTO toDTO() {
+        return LotServiceImpl.toDTO(summary, now);
+    }
+
+    @Benchmark
+    public LotDetailDTO toDetailDTO() {
+        return LotServiceImpl.toDetailDTO(detail, topBids, now);
+    }
+
+    /** Calcul fait par refreshLotStatus(...) : dates de l'entité, instant courant */
+    @Benchmark
+    public LotStatus refreshLotStatusComputation() {
+        return LotServiceImpl.computeStatus(lot.getStartDate(), lot.getEndDate(),
+                lot.getCurrentLeader() != null, LocalDateTime.now());
+    }
+
+    /** Même calcul avec un instant fourni, comme dans les listes */
+    @Benchmark
+    public LotStatus computeStatus() {
+        return LotServiceImpl.computeStatus(summary.startDate(), summary.endDate(),
+                summary.currentLeaderId() != null, now);
+    }
+}
@@ -1,5 +1,9 @@
 package org.example.auctionbackend.advice;
 
+import org.example.auctionbackend.cache.IdempotencyKeyReusedException;
+import org.example.auctionbackend.cache.InvalidIdempotencyKeyException;
+import org.example.auctionbackend.service.InvalidCursorException;
+import org.example.auctionbackend.service.LotBusyException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;               // <-- ajouté
@@ -13,6 +17,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
@@ -37,6 +42,60 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Pool de travail saturé (ex. hachage des mots de passe) : refus immédiat,
+     * le client peut réessayer.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Object> handleRejected(RejectedExecutionException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("code", "SERVICE_UNAVAILABLE");
+        body.put("message", ex.getMessage());
+        body.put("timestamp", Instant.now().toString());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    /**
+     * Lot trop sollicité pour accepter l'enchère maintenant : le client peut réessayer.
+     */
+    @ExceptionHandler(LotBusyException.class)
+    public ResponseEntity<Object> handleLotBusy(LotBusyException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("code", "LOT_BUSY");
+        body.put("message", ex.getMessage());
+        body.put("timestamp", Instant.now().toString());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    /**
+     * Curseur de pagination illisible ou altéré (paramètre after).
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursor(InvalidCursorException ex, WebRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("code", "INVALID_CURSOR");
+        body.put("message", ex.getMessage());
+        body.put("timestamp", Instant.now().toString());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * En-tête Idempotency-Key invalide (400) ou réutilisé pour une autre requête (422).
+     */
+    @ExceptionHandler({InvalidIdempotencyKeyException.class, IdempotencyKeyReusedException.class})
+    public ResponseEntity<Object> handleIdempotencyKey(IllegalArgumentException ex, WebRequest request) {
+        boolean reused = ex instanceof IdempotencyKeyReusedException;
+        Map<String, Object> body = new HashMap<>();
+        body.put("code", reused ? "IDEMPOTENCY_KEY_REUSED" : "INVALID_IDEMPOTENCY_KEY");
+        body.put("message", ex.getMessage());
+        body.put("timestamp", Instant.now().toString());
+        return new ResponseEntity<>(body, reused ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Gère toutes les autres exceptions non capturées ailleurs.
      */
@@ -0,0 +1,148 @@
+package org.example.auctionbackend.cache;
+
+import org.example.auctionbackend.dto.CategoryDTO;
+import org.example.auctionbackend.dto.CategoryTreeDTO;
+import org.example.auctionbackend.model.Category;
+
+import java.util.*;
+
+/**
+ * Index immuable de l'arborescence des catégories, construit en une seule passe
+ * à partir de la table complète.
+ *
+ * Pour chaque nœud : parent, enfants directs et ensemble précalculé des
+ * descendants (à toute profondeur, le nœud lui-même inclus). Une nouvelle
+ * instance est construite à chaque changement puis publiée atomiquement.
+ */
+public final class CategoryIndex {
+
+    private final Map<Long, Node> nodes;
+    private final List<CategoryDTO> topLevel;
+    private final List<CategoryTreeDTO> tree;
+
+    private CategoryIndex(Map<Long, Node> nodes, List<CategoryDTO> topLevel, List<CategoryTreeDTO> tree) {
+        this.nodes = nodes;
+        this.topLevel = topLevel;
+        this.tree = tree;
+    }
+
+    public static CategoryIndex build(Collection<Category> categories) {
+        // 1. Nœuds bruts, triés par id pour un ordre d'affichage stable
+        Map<Long, Node> nodes = new LinkedHashMap<>();
+        categories.stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .forEach(c -> nodes.put(c.getId(), new Node(
+                        c.getId(),
+                        c.getName(),
+                        (c.getParent() != null) ? c.getParent().getId() : null)));
+
+        // 2. Liens parent → enfants (un parent inconnu fait du nœud une racine)
+        List<Node> roots = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            Node parent = (node.parentId != null) ? nodes.get(node.parentId) : null;
+            if (parent == null || parent == node) {
+                roots.add(node);
+            } else {
+                parent.childList.add(node);
+            }
+        }
+
+        // 3. Descendants précalculés et vues DTO figées, depuis les racines
+        Set<Long> visited = new HashSet<>();
+        List<CategoryTreeDTO> tree = new ArrayList<>();
+        for (Node root : roots) {
+            tree.add(freeze(root, visited));
+        }
+        // nœuds pris dans un cycle, jamais atteints depuis une racine
+        for (Node node : nodes.values()) {
+            if (!visited.contains(node.id)) {
+                freeze(node, visited);
+            }
+        }
+        List<CategoryDTO> topLevel = roots.stream().map(n -> n.dto).toList();
+
+        return new CategoryIndex(Collections.unmodifiableMap(nodes), topLevel, Collections.unmodifiableList(tree));
+    }
+
+    private static CategoryTreeDTO freeze(Node node, Set<Long> visited) {
+        visited.add(node.id);
+        Set<Long> descendants = new HashSet<>();
+        descendants.add(node.id);
+        List<CategoryTreeDTO> subtrees = new ArrayList<>();
+        long[] childIds = new long[node.childList.size()];
+        int i = 0;
+        for (Node child : node.childList) {
+            childIds[i++] = child.id;
+            if (visited.contains(child.id)) {
+                continue; // cycle dans les données : on ne boucle pas
+            }
+            subtrees.add(freeze(child, visited));
+            descendants.addAll(child.descendantIds);
+        }
+        node.childIds = childIds;
+        node.descendantIds = Collections.unmodifiableSet(descendants);
+        node.children = node.childList.stream().map(n -> n.dto).toList();
+        return new CategoryTreeDTO(node.id, node.name, Collections.unmodifiableList(subtrees));
+    }
+
+    /** Catégories de niveau 1 */
+    public List<CategoryDTO> topLevel() {
+        return topLevel;
+    }
+
+    /** Arborescence complète, à toute profondeur */
+    public List<CategoryTreeDTO> tree() {
+        return tree;
+    }
+
+    /** Enfants directs de la catégorie (liste vide si inconnue) */
+    public List<CategoryDTO> children(Long parentId) {
+        Node node = nodes.get(parentId);
+        return (node != null) ? node.children : List.of();
+    }
+
+    /** Identifiant du parent, ou null pour une racine / catégorie inconnue */
+    public Long parentId(Long id) {
+        Node node = nodes.get(id);
+        return (node != null) ? node.parentId : null;
+    }
+
+    /** Identifiants des enfants directs */
+    public long[] childIds(Long id) {
+        Node node = nodes.get(id);
+        return (node != null) ? node.childIds.clone() : new long[0];
+    }
+
+    /**
+     * La catégorie et tous ses descendants. Une catégorie inconnue
+     * renvoie simplement son propre id.
+     */
+    public Set<Long> selfAndDescendantIds(Long id) {
+        Node node = nodes.get(id);
+        return (node != null) ? node.descendantIds : Set.of(id);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    private static final class Node {
+        private final Long id;
+        private final String name;
+        private final Long parentId;
+        private final CategoryDTO dto;
+        // uniquement pendant la construction
+        private final List<Node> childList = new ArrayList<>();
+
+        private long[] childIds = new long[0];
+        private Set<Long> descendantIds = Set.of();
+        private List<CategoryDTO> children = List.of();
+
+        private Node(Long id, String name, Long parentId) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.dto = new CategoryDTO(id, name);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.auctionbackend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Déduplication des POST rejoués par les clients (en-tête Idempotency-Key).
+ *
+ * Le résultat de la première exécution est conservé (taille bornée + TTL) par
+ * opération, utilisateur et clé ; un rejeu renvoie ce résultat sans toucher à
+ * la base. Un rejeu qui arrive pendant la première exécution attend son
+ * résultat au lieu de la relancer. Une exécution en échec n'est pas mémorisée :
+ * le client peut réessayer avec la même clé.
+ *
+ * Statistiques exportées sous cache.* (tag cache=idempotency).
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final Cache<String, Entry> cache;
+
+    public IdempotencyCache(MeterRegistry meterRegistry,
+                            @Value("${auction.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${auction.idempotency.ttl:24h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+    }
+
+    /**
+     * Exécute {@code action} une seule fois par (scope, principal, key).
+     *
+     * @param scope       opération (ex. "bid", "top-up")
+     * @param principal   utilisateur authentifié : une clé n'est valable que pour lui
+     * @param key         valeur de l'en-tête Idempotency-Key ; null : pas de déduplication
+     * @param fingerprint contenu significatif de la requête ; une clé réutilisée avec
+     *                    une requête différente est refusée
+     * @throws InvalidIdempotencyKeyException si la clé est trop longue (400)
+     * @throws IdempotencyKeyReusedException  si la clé a servi pour une autre requête (422)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String principal, String key, Object fingerprint, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException();
+        }
+
+        String cacheKey = scope + '|' + principal + '|' + key;
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = cache.asMap().putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            return (T) await(existing.result);
+        }
+
+        try {
+            T result = action.get();
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            cache.asMap().remove(cacheKey, mine);
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /** Empreinte de la requête d'origine et son résultat (éventuellement en cours) */
+    private record Entry(Object fingerprint, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.auctionbackend.cache;
+
+/**
+ * Idempotency-Key déjà utilisée pour une requête différente : erreur du
+ * client (422), qu'un nouvel essai à l'identique ne corrigera pas.
+ */
+public class IdempotencyKeyReusedException extends IllegalArgumentException {
+
+    public IdempotencyKeyReusedException() {
+        super(IdempotencyCache.HEADER + " reused with a different request");
+    }
+}
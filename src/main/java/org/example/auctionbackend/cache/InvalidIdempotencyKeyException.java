@@ -0,0 +1,11 @@
+package org.example.auctionbackend.cache;
+
+/**
+ * En-tête Idempotency-Key invalide (trop long) : erreur du client (400).
+ */
+public class InvalidIdempotencyKeyException extends IllegalArgumentException {
+
+    public InvalidIdempotencyKeyException() {
+        super("Invalid " + IdempotencyCache.HEADER);
+    }
+}
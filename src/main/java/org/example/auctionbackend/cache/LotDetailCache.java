@@ -0,0 +1,68 @@
+package org.example.auctionbackend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.repository.projection.BidView;
+import org.example.auctionbackend.repository.projection.LotDetailView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache borné (taille + TTL) du détail des lots, par id.
+ *
+ * On met en cache la projection brute (et les meilleures enchères) et non le DTO :
+ * le statut reste calculé à chaque lecture à partir des dates. Les entrées sont invalidées
+ * synchronement après le commit de toute écriture sur le lot (enchère,
+ * mise à jour, remise en vente, annulation, transition de statut).
+ * Les chargements concurrents d'une même clé sont regroupés en un seul.
+ *
+ * Statistiques exportées sous cache.* (tag cache=lotDetail).
+ */
+@Component
+public class LotDetailCache {
+
+    private final Cache<Long, Entry> cache;
+
+    public LotDetailCache(MeterRegistry meterRegistry,
+                          @Value("${auction.cache.lot-detail.maximum-size:10000}") long maximumSize,
+                          @Value("${auction.cache.lot-detail.ttl:10s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "lotDetail");
+    }
+
+    /**
+     * Renvoie le détail en cache, ou le charge via {@code loader} (un seul chargement
+     * par clé même en cas d'accès concurrents). Un lot introuvable n'est pas mis en cache.
+     */
+    public Optional<Entry> get(Long lotId, Function<Long, Optional<Entry>> loader) {
+        return Optional.ofNullable(cache.get(lotId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public void invalidate(Long lotId) {
+        cache.invalidate(lotId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotChanged(LotChangedEvent event) {
+        invalidate(event.getLotId());
+    }
+
+    /**
+     * Valeur en cache : la projection du lot et ses N meilleures enchères.
+     */
+    public record Entry(LotDetailView lot, List<BidView> topBids) {
+    }
+}
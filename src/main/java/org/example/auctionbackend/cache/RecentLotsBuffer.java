@@ -0,0 +1,140 @@
+package org.example.auctionbackend.cache;
+
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.projection.LotSummaryView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Tampon circulaire, sans verrou et de capacité fixe, des derniers lots créés.
+ *
+ * Alimenté au démarrage depuis la base, puis à chaque création de lot ;
+ * les enchères et changements de statut sont appliqués en place. La lecture
+ * (GET /lots/recent et autres widgets de la page d'accueil) ne touche pas la base.
+ *
+ * Un lot supprimé laisse un trou, comblé seulement quand de nouveaux lots
+ * font tourner le tampon : tant qu'un trou tombe dans la plage demandée,
+ * latest(...) ne répond pas et l'appelant lit la base.
+ */
+@Component
+public class RecentLotsBuffer {
+
+    private final LotRepository lotRepository;
+    private final int capacity;
+    private final AtomicReferenceArray<LotSummaryView> slots;
+    /** Nombre total d'ajouts depuis le démarrage ; le prochain ajout va dans head % capacity */
+    private final AtomicLong head = new AtomicLong();
+
+    private volatile boolean seeded;
+
+    public RecentLotsBuffer(LotRepository lotRepository,
+                            @Value("${auction.lots.recent.capacity:32}") int capacity) {
+        this.lotRepository = lotRepository;
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<LotSummaryView> latest = lotRepository.findRecentSummaries(PageRequest.of(0, capacity));
+        // du plus ancien au plus récent, pour garder l'ordre d'insertion
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            append(latest.get(i));
+        }
+        seeded = true;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Les {@code count} lots les plus récents, du plus récent au plus ancien ;
+     * vide si le tampon ne peut pas répondre exactement (pas encore alimenté,
+     * {@code count} au-delà de la capacité, ou lot supprimé dans la plage).
+     */
+    public Optional<List<LotSummaryView>> latest(int count) {
+        if (!seeded || count > capacity) {
+            return Optional.empty();
+        }
+        long h = head.get();
+        long oldest = Math.max(0, h - capacity);
+        List<LotSummaryView> result = new ArrayList<>(count);
+        for (long seq = h - 1; seq >= oldest && result.size() < count; seq--) {
+            LotSummaryView v = slots.get(index(seq));
+            if (v == null) {
+                // lot supprimé (ou ajout en cours) : des lots plus anciens existent peut-être en base
+                return Optional.empty();
+            }
+            result.add(v);
+        }
+        return Optional.of(result);
+    }
+
+    public void append(LotSummaryView lot) {
+        slots.set(index(head.getAndIncrement()), lot);
+    }
+
+    /**
+     * Applique {@code change} en place à l'entrée du lot, s'il est dans le tampon
+     * ({@code change} peut renvoyer null pour retirer l'entrée).
+     */
+    public void patch(Long lotId, UnaryOperator<LotSummaryView> change) {
+        for (int i = 0; i < capacity; i++) {
+            LotSummaryView current = slots.get(i);
+            while (current != null && current.id().equals(lotId)) {
+                if (slots.compareAndSet(i, current, change.apply(current))) {
+                    break;
+                }
+                current = slots.get(i);
+            }
+        }
+    }
+
+    public boolean contains(Long lotId) {
+        for (int i = 0; i < capacity; i++) {
+            LotSummaryView v = slots.get(i);
+            if (v != null && v.id().equals(lotId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotChanged(LotChangedEvent event) {
+        Long lotId = event.getLotId();
+        switch (event.getType()) {
+            case CREATED -> lotRepository.findSummaryById(lotId).ifPresent(this::append);
+            case DELETED -> patch(lotId, v -> null);
+            case BID_PLACED, STATUS_CHANGED ->
+                    patch(lotId, v -> v.withBid(event.getCurrentPrice(), event.getCurrentLeaderId()));
+            case UPDATED -> {
+                // titre, catégorie… ont pu changer : relecture, seulement si le lot est affiché
+                if (contains(lotId)) {
+                    lotRepository.findSummaryById(lotId).ifPresent(fresh -> patch(lotId, v -> fresh));
+                }
+            }
+        }
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.auctionbackend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.auctionbackend.repository.RefreshTokenFamilyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Index des sessions (familles de refresh tokens) révoquées, consulté par
+ * JwtAuthenticationFilter à chaque requête authentifiée.
+ *
+ * Filtre de Bloom en mémoire devant refresh_token_families : une session non
+ * révoquée (le cas courant) est écartée sans accès à la base ; seul un
+ * résultat positif (révoquée, ou faux positif au taux configuré) est confirmé
+ * par une requête. Le filtre est chargé au démarrage et reconstruit après
+ * chaque purge des familles expirées (un filtre de Bloom ne sait pas retirer).
+ *
+ * Une révocation faite sur une autre instance n'est vue ici qu'à la
+ * reconstruction suivante ; les jetons d'accès concernés expirent d'ici là,
+ * et le refresh, lui, est toujours vérifié en base.
+ *
+ * Métriques : auction.sessions.revoked.lookups (confirmations en base),
+ * auction.sessions.revoked.false-positives.
+ */
+@Component
+public class RevokedSessionIndex {
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final int bitCount;
+    private final int hashCount;
+    private final Counter lookups;
+    private final Counter falsePositives;
+
+    private final Object lock = new Object();
+    private volatile AtomicLongArray bits;
+    /** Filtre en cours de reconstruction : reçoit aussi les ajouts */
+    private volatile AtomicLongArray rebuilding;
+
+    /**
+     * @param expectedInsertions nombre de sessions révoquées conservées attendu
+     * @param falsePositiveRate  taux de faux positifs visé à ce nombre
+     */
+    public RevokedSessionIndex(MeterRegistry meterRegistry,
+                               RefreshTokenFamilyRepository familyRepository,
+                               @Value("${auction.security.sessions.revoked-bloom.expected-insertions:100000}") int expectedInsertions,
+                               @Value("${auction.security.sessions.revoked-bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.familyRepository = familyRepository;
+        double ln2 = Math.log(2);
+        this.bitCount = (int) Math.max(64, Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * ln2));
+        this.bits = new AtomicLongArray(words());
+
+        this.lookups = Counter.builder("auction.sessions.revoked.lookups")
+                .description("Sessions signalées par le filtre de Bloom et vérifiées en base")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("auction.sessions.revoked.false-positives")
+                .description("Vérifications en base d'une session finalement non révoquée")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Au démarrage, charge les sessions révoquées depuis la base.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruit le filtre à partir de la base (après une purge).
+     */
+    public void rebuild() {
+        AtomicLongArray next = new AtomicLongArray(words());
+        synchronized (lock) {
+            rebuilding = next;
+        }
+        try {
+            List<String> revoked = familyRepository.findRevokedIds();
+            revoked.forEach(id -> set(next, id));
+            synchronized (lock) {
+                bits = next;
+            }
+        } finally {
+            synchronized (lock) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * true si la session est révoquée ; accès à la base seulement si le filtre la signale.
+     */
+    public boolean isRevoked(String familyId) {
+        if (!mightContain(bits, familyId)) {
+            return false;
+        }
+        lookups.increment();
+        boolean revoked = familyRepository.existsByIdAndRevokedTrue(familyId);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Ajoute la session après le commit de sa révocation (immédiatement hors
+     * transaction) : une reconstruction concurrente la lit alors en base, ou
+     * la reçoit ici.
+     */
+    public void addAfterCommit(String familyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(familyId);
+                }
+            });
+        } else {
+            add(familyId);
+        }
+    }
+
+    private void add(String familyId) {
+        synchronized (lock) {
+            set(bits, familyId);
+            if (rebuilding != null) {
+                set(rebuilding, familyId);
+            }
+        }
+    }
+
+    private int words() {
+        return (bitCount + 63) >>> 6;
+    }
+
+    private void set(AtomicLongArray target, String familyId) {
+        long hash = hash(familyId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = target.get(word);
+            } while ((current & mask) == 0 && !target.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray target, String familyId) {
+        long hash = hash(familyId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((target.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** FNV-1a 64 bits puis mélange (SplitMix64) : deux hachages indépendants de 32 bits */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h;
+    }
+}
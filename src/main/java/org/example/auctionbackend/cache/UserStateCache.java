@@ -0,0 +1,100 @@
+package org.example.auctionbackend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.auctionbackend.repository.UserRepository;
+import org.example.auctionbackend.repository.projection.UserStateView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Cache de l'état d'authentification des utilisateurs (verrouillage,
+ * révocation des jetons), consulté par JwtAuthenticationFilter à chaque
+ * requête authentifiée à la place de loadUserByUsername(...).
+ *
+ * Invalidé après le commit de tout changement local (verrouillage,
+ * déverrouillage, changement de mot de passe, déconnexion de toutes les sessions) ; le TTL borne le délai de
+ * prise en compte d'un changement fait sur une autre instance.
+ *
+ * Statistiques exportées sous cache.* (tag cache=userState).
+ */
+@Component
+public class UserStateCache {
+
+    private final Cache<String, UserState> cache;
+    private final UserRepository userRepository;
+
+    public UserStateCache(MeterRegistry meterRegistry,
+                          UserRepository userRepository,
+                          @Value("${auction.security.user-state.maximum-size:100000}") long maximumSize,
+                          @Value("${auction.security.user-state.ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userState");
+    }
+
+    /**
+     * État de l'utilisateur ; vide s'il n'existe pas (non mis en cache).
+     */
+    public Optional<UserState> get(String username) {
+        return Optional.ofNullable(cache.get(username, name -> userRepository.findStateByUsername(name)
+                .map(UserState::of)
+                .orElse(null)));
+    }
+
+    /**
+     * Invalide l'entrée après le commit de la transaction courante (immédiatement
+     * hors transaction), pour qu'une lecture concurrente ne remette pas l'ancien état.
+     */
+    public void invalidateAfterCommit(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        } else {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * @param accountLocked     compte verrouillé
+     * @param tokensValidAfter  les jetons émis avant cet instant (ms, à la seconde comme iat)
+     *                          sont révoqués : changement de mot de passe ou
+     *                          déconnexion de toutes les sessions ; 0 si aucun
+     */
+    public record UserState(boolean accountLocked, long tokensValidAfter) {
+
+        static UserState of(UserStateView v) {
+            long validAfter = Math.max(seconds(v.credentialsChangedAt()), seconds(v.sessionsRevokedAt()));
+            return new UserState(v.accountLocked(), validAfter);
+        }
+
+        /** Arrondi à la seconde supérieure : iat est en secondes, un jeton émis dans la même seconde est refusé */
+        private static long seconds(LocalDateTime time) {
+            return (time == null) ? 0
+                    : -Math.floorDiv(-time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), 1000) * 1000;
+        }
+
+        /** true si un jeton émis à {@code issuedAt} a été révoqué depuis */
+        public boolean revokes(Date issuedAt) {
+            return tokensValidAfter > 0 && (issuedAt == null || issuedAt.getTime() < tokensValidAfter);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.auctionbackend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cache borné des JWT déjà vérifiés : empreinte SHA-256 du jeton → claims.
+ *
+ * Un jeton présenté à nouveau (chaque requête d'une session) n'est ni
+ * redécodé ni revérifié (HMAC). Une entrée vit au plus jusqu'à l'expiration
+ * (exp) du jeton ; le jeton lui-même n'est pas conservé, seule son empreinte.
+ * Les claims mis en cache sont partagés : lecture seule.
+ *
+ * Statistiques exportées sous cache.* (tag cache=verifiedTokens).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${auction.jwt.verified-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokens");
+    }
+
+    /**
+     * Claims du jeton, depuis le cache ou via {@code verifier} (vérification complète).
+     * Les exceptions du vérificateur (jeton invalide, expiré…) sont propagées
+     * telles quelles et rien n'est mis en cache.
+     */
+    public Claims get(String token, Function<String, Claims> verifier) {
+        String digest = digest(token);
+        Claims claims = cache.get(digest, k -> verifier.apply(token));
+        if (isExpired(claims)) {
+            // expiration atteinte entre deux passages du nettoyage : on revérifie (et échoue)
+            cache.invalidate(digest);
+            return verifier.apply(token);
+        }
+        return claims;
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date exp = claims.getExpiration();
+        return exp != null && exp.getTime() <= System.currentTimeMillis();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Durée de vie d'une entrée : jusqu'à l'exp du jeton (les jetons sans exp ne sont pas gardés) */
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, exp.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.auctionbackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Vérifie au démarrage que le pool JDBC garde toujours une connexion libre
+ * pour le générateur d'ids "table".
+ *
+ * Ce générateur réserve ses blocs sur une seconde connexion, pendant que la
+ * transaction qui insère garde la sienne. Si chaque thread susceptible de
+ * tenir une transaction (requêtes Tomcat, clôture des lots, tâches planifiées)
+ * occupait une connexion en attendant un id, plus aucune ne resterait pour la
+ * réservation : tout se bloquerait jusqu'au timeout du pool. D'où la règle
+ * pool > threads, appliquée ici plutôt que découverte sous charge.
+ */
+@Slf4j
+@Component
+public class ConnectionPoolSizeCheck {
+
+    private final DataSource dataSource;
+    private final int requestThreads;
+    private final int closingThreads;
+    private final int schedulingThreads;
+
+    public ConnectionPoolSizeCheck(DataSource dataSource,
+                                   @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                                   @Value("${auction.lots.closing-threads:2}") int closingThreads,
+                                   @Value("${spring.task.scheduling.pool.size:1}") int schedulingThreads) {
+        this.dataSource = dataSource;
+        this.requestThreads = requestThreads;
+        this.closingThreads = closingThreads;
+        this.schedulingThreads = schedulingThreads;
+    }
+
+    @PostConstruct
+    public void check() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+        int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        int threads = requestThreads + closingThreads + schedulingThreads;
+        if (poolSize <= threads) {
+            throw new IllegalStateException("spring.datasource.hikari.maximum-pool-size (" + poolSize
+                    + ") must exceed the threads that can hold a transaction (" + threads
+                    + "): the table id generator needs a spare connection");
+        }
+        log.debug("Connection pool of {} for {} transactional threads", poolSize, threads);
+    }
+}
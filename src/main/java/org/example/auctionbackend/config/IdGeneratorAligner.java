@@ -0,0 +1,81 @@
+package org.example.auctionbackend.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.auctionbackend.model.IdGenerators;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aligne la table id_generators sur les ids déjà présents en base.
+ *
+ * Les tables users, lots, bids et user_transactions étaient alimentées en
+ * AUTO_INCREMENT ; sans cet alignement, le premier bloc réservé par le
+ * générateur "table" repartirait de 1 et entrerait en collision avec les
+ * lignes existantes. Exécuté une fois au démarrage, après la mise à jour du
+ * schéma par Hibernate et avant la première insertion. Idempotent : ne fait
+ * que remonter next_val, jamais le baisser.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorAligner {
+
+    /** Valeur de pkColumnValue (ligne id_generators) → table de l'entité */
+    private static final Map<String, String> GENERATED_TABLES = Map.of(
+            "users", "users",
+            "lots", "lots",
+            "bids", "bids",
+            "user_transactions", "user_transactions"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        GENERATED_TABLES.forEach(this::align);
+    }
+
+    private void align(String sequenceName, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            // table vide : Hibernate initialise lui-même la ligne
+            return;
+        }
+        // L'optimiseur pooled distribue (next_val - ALLOCATION_SIZE, next_val] :
+        // next_val = max + ALLOCATION_SIZE fait repartir juste après le plus grand id.
+        long target = maxId + IdGenerators.ALLOCATION_SIZE;
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "select " + IdGenerators.VALUE_COLUMN + " from " + IdGenerators.TABLE
+                        + " where " + IdGenerators.PK_COLUMN + " = ?",
+                Long.class, sequenceName);
+        if (current.isEmpty()) {
+            try {
+                jdbcTemplate.update("insert into " + IdGenerators.TABLE
+                                + " (" + IdGenerators.PK_COLUMN + ", " + IdGenerators.VALUE_COLUMN + ") values (?, ?)",
+                        sequenceName, target);
+                log.info("Initialised id generator '{}' at {}", sequenceName, target);
+                return;
+            } catch (DuplicateKeyException e) {
+                // ligne créée entre-temps (autre instance) : on retombe sur la mise à jour
+            }
+        }
+        int updated = jdbcTemplate.update("update " + IdGenerators.TABLE
+                        + " set " + IdGenerators.VALUE_COLUMN + " = ?"
+                        + " where " + IdGenerators.PK_COLUMN + " = ? and " + IdGenerators.VALUE_COLUMN + " < ?",
+                target, sequenceName, target);
+        if (updated > 0) {
+            log.info("Raised id generator '{}' to {}", sequenceName, target);
+        }
+    }
+}
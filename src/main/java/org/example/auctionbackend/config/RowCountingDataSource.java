@@ -0,0 +1,109 @@
+package org.example.auctionbackend.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource qui compte les lignes lues (ResultSet.next()) pour la requête
+ * HTTP en cours : Hibernate ne fournit pas ce nombre par session.
+ *
+ * Seuls les ResultSet ouverts pendant une requête sont enveloppés ; hors
+ * requête, le coût se limite à un proxy par connexion empruntée. Le pool
+ * reste accessible par unwrap (métriques hikaricp.*).
+ */
+public class RowCountingDataSource extends DelegatingDataSource {
+
+    public RowCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countRows(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countRows(super.getConnection(username, password));
+    }
+
+    private static Connection countRows(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) ->
+                (result instanceof Statement statement)
+                        ? countRows(statement, method.getReturnType())
+                        : result);
+    }
+
+    private static Object countRows(Statement statement, Class<?> type) {
+        return proxy(type, statement, (method, result) -> {
+            SqlRequestStats stats = SqlRequestStats.current();
+            return (stats != null && result instanceof ResultSet resultSet)
+                    ? countRows(resultSet, stats)
+                    : result;
+        });
+    }
+
+    private static ResultSet countRows(ResultSet resultSet, SqlRequestStats stats) {
+        return proxy(ResultSet.class, resultSet, (method, result) -> {
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                stats.rowFetched();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Proxy de target qui transmet chaque appel puis passe le résultat à onResult ;
+     * equals/hashCode portent sur le proxy lui-même.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Object target, ResultHandler onResult) {
+        return (T) Proxy.newProxyInstance(RowCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                    return onResult.apply(method, result);
+                });
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object apply(Method method, Object result);
+    }
+
+    /**
+     * Enveloppe la DataSource de l'application.
+     */
+    @Component
+    static class Installer implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return (bean instanceof DataSource dataSource && !(bean instanceof RowCountingDataSource))
+                    ? new RowCountingDataSource(dataSource)
+                    : bean;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.auctionbackend.config;
+
+/**
+ * Compteurs SQL de la requête HTTP en cours sur ce thread : ordres préparés,
+ * lignes lues et entités chargées.
+ *
+ * Ouverts et fermés par SqlRequestStatsFilter ; alimentés par
+ * SqlStatementCounter (Hibernate) et RowCountingDataSource (JDBC). Hors
+ * requête (schedulers, threads d'arrière-plan), rien n'est compté.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+    private long entities;
+
+    private SqlRequestStats() {
+    }
+
+    static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Compteurs de la requête en cours, null hors requête.
+     */
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared() {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entities++;
+        }
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long entities() {
+        return entities;
+    }
+}
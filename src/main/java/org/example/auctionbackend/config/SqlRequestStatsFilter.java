@@ -0,0 +1,148 @@
+package org.example.auctionbackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Budget SQL par requête HTTP : ordres préparés, lignes lues et entités
+ * chargées (cf. SqlRequestStats), y compris par la chaîne de sécurité.
+ *
+ * Toujours exportés en métriques auction.sql.statements / .rows / .entities
+ * (tags method, uri = route du contrôleur) : un N+1 se voit comme une route
+ * dont le nombre d'ordres croît avec la taille de la réponse.
+ *
+ * Avec auction.sql.headers=true (profil debug), les compteurs sont aussi
+ * renvoyés en en-têtes X-Sql-*, posés juste avant l'envoi de la réponse ;
+ * les tests peuvent ainsi borner le nombre d'ordres par endpoint.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlRequestStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String ENTITIES_HEADER = "X-Sql-Entities";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean headers;
+
+    public SqlRequestStatsFilter(MeterRegistry meterRegistry,
+                                 @Value("${auction.sql.headers:false}") boolean headers) {
+        this.meterRegistry = meterRegistry;
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        SqlRequestStats stats = SqlRequestStats.begin();
+        StatsHeaderResponse wrapped = headers ? new StatsHeaderResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, (wrapped != null) ? wrapped : response);
+        } finally {
+            SqlRequestStats.end();
+            if (wrapped != null) {
+                // réponse sans corps (204…) : les en-têtes n'ont pas encore été posés
+                wrapped.writeHeaders();
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlRequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = (pattern != null) ? pattern.toString() : "UNKNOWN";
+        summary("auction.sql.statements", "Ordres SQL préparés par requête HTTP", request, uri)
+                .record(stats.statements());
+        summary("auction.sql.rows", "Lignes lues en base par requête HTTP", request, uri)
+                .record(stats.rows());
+        summary("auction.sql.entities", "Entités JPA chargées par requête HTTP", request, uri)
+                .record(stats.entities());
+    }
+
+    private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pose les en-têtes X-Sql-* au premier accès au corps, avant que la
+     * réponse ne soit envoyée.
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlRequestStats stats;
+        private boolean written;
+
+        StatsHeaderResponse(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(stats.statements()));
+            setHeader(ROWS_HEADER, String.valueOf(stats.rows()));
+            setHeader(ENTITIES_HEADER, String.valueOf(stats.entities()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.auctionbackend.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Compte, pour la requête HTTP en cours, les ordres SQL préparés par Hibernate
+ * (StatementInspector : un lot JDBC compte pour un ordre) et les entités
+ * hydratées (Interceptor.onLoad). Enregistré sur la SessionFactory par
+ * HibernatePropertiesCustomizer ; le SQL n'est pas modifié.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, Interceptor, HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats.statementPrepared();
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        SqlRequestStats.entityLoaded();
+        return false;
+    }
+}
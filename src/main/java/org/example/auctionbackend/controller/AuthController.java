@@ -2,15 +2,22 @@
 
 package org.example.auctionbackend.controller;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.example.auctionbackend.auth.AuthRequest;
 import org.example.auctionbackend.auth.AuthResponse;
 import org.example.auctionbackend.auth.RefreshRequest;
 import org.example.auctionbackend.auth.LoginRequest;
 import org.example.auctionbackend.auth.ChangePasswordRequest;
+import org.example.auctionbackend.cache.UserStateCache;
 import org.example.auctionbackend.dto.UserProfileDTO;
 import org.example.auctionbackend.model.User;
 import org.example.auctionbackend.repository.UserRepository;
 import org.example.auctionbackend.security.JwtUtils;
+import org.example.auctionbackend.security.LoginAttemptLimiter;
+import org.example.auctionbackend.service.RefreshTokenService;
+import org.example.auctionbackend.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,14 +25,17 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import lombok.RequiredArgsConstructor;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -35,58 +45,55 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AuthController {
 
-    private static final int MAX_FAILED_ATTEMPTS     = 5;
-    private static final long LOCK_TIME_DURATION_MIN = 2; // minutes
-
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
+    private final UserStateCache userStateCache;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final RefreshTokenService refreshTokenService;
+    private final UserService userService;
 
     // ----- CREATE SESSION (login) -----
     @PostMapping("/sessions")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Optional<User> userOpt = userRepository.findByUsername(loginRequest.getUsername());
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        // blocages en mémoire : refus avant toute lecture en base et tout calcul BCrypt
+        if (loginAttemptLimiter.isBlocked(request.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many login attempts");
+        }
+        Optional<LocalDateTime> lockedUntil = loginAttemptLimiter.lockedUntil(loginRequest.getUsername());
+        if (lockedUntil.isPresent()) {
+            return ResponseEntity.status(HttpStatus.LOCKED).body("Account locked until " + lockedUntil.get());
         }
-        User user = userOpt.get();
 
-        if (user.isAccountLocked()) {
-            LocalDateTime unlockTime = user.getLockTime().plusMinutes(LOCK_TIME_DURATION_MIN);
-            if (LocalDateTime.now().isBefore(unlockTime)) {
-                return ResponseEntity.status(HttpStatus.LOCKED)
-                        .body("Account locked until " + unlockTime);
+        // verrouillage persisté (autre instance, redémarrage)
+        Optional<User> userOpt = userRepository.findByUsername(loginRequest.getUsername());
+        if (userOpt.isPresent()) {
+            lockedUntil = loginAttemptLimiter.lockedUntil(userOpt.get());
+            if (lockedUntil.isPresent()) {
+                return ResponseEntity.status(HttpStatus.LOCKED).body("Account locked until " + lockedUntil.get());
             }
-            user.setAccountLocked(false);
-            user.setFailedAttempts(0);
-            user.setLockTime(null);
-            userRepository.save(user);
         }
 
+        // échecs et succès comptés par AuthenticationEventListener (y compris utilisateur inconnu)
         try {
-            Authentication auth = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getUsername(),
-                            loginRequest.getPassword()
-                    )
+            UsernamePasswordAuthenticationToken credentials = new UsernamePasswordAuthenticationToken(
+                    loginRequest.getUsername(),
+                    loginRequest.getPassword()
             );
+            credentials.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Authentication auth = authenticationManager.authenticate(credentials);
             SecurityContextHolder.getContext().setAuthentication(auth);
-            user.setFailedAttempts(0);
-            userRepository.save(user);
 
-            String accessToken  = jwtUtils.generateAccessToken(auth.getName());
-            String refreshToken = jwtUtils.generateRefreshToken(auth.getName());
+            RefreshTokenService.Session session = refreshTokenService.open(auth.getName());
+            String accessToken  = jwtUtils.generateAccessToken(auth.getName(),
+                    auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                    session.familyId());
+            String refreshToken = jwtUtils.generateRefreshToken(auth.getName(), session.familyId(), session.jti());
             return ResponseEntity.ok(new AuthResponse(accessToken, refreshToken));
 
         } catch (BadCredentialsException ex) {
-            int attempts = user.getFailedAttempts() + 1;
-            user.setFailedAttempts(attempts);
-            if (attempts >= MAX_FAILED_ATTEMPTS) {
-                user.setAccountLocked(true);
-                user.setLockTime(LocalDateTime.now());
-            }
-            userRepository.save(user);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         }
     }
@@ -116,16 +123,56 @@ public class AuthController {
     // ----- CREATE TOKEN (refresh) -----
     @PostMapping("/tokens")
     public ResponseEntity<AuthResponse> refreshToken(@RequestBody RefreshRequest req) {
-        String refresh = req.getRefreshToken();
-        if (!jwtUtils.validateToken(refresh)) {
+        Claims claims;
+        try {
+            claims = jwtUtils.verify(req.getRefreshToken());
+        } catch (JwtException | IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String sessionId = JwtUtils.sessionId(claims);
+        if (!JwtUtils.isRefreshToken(claims) || sessionId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String username   = claims.getSubject();
+        // déconnexion de toutes les sessions ou changement de mot de passe depuis l'émission
+        if (userStateCache.get(username).map(s -> s.revokes(claims.getIssuedAt())).orElse(true)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // rotation : le jeton présenté ne sera plus accepté (rejeu → session révoquée)
+        Optional<RefreshTokenService.Session> session = refreshTokenService.rotate(sessionId, claims.getId());
+        if (session.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        String username   = jwtUtils.getUsernameFromToken(refresh);
-        String newAccess  = jwtUtils.generateAccessToken(username);
-        String newRefresh = jwtUtils.generateRefreshToken(username);
+        // les rôles du nouveau jeton d'accès sont relus : un changement de rôle prend effet au refresh
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String newAccess  = jwtUtils.generateAccessToken(username, userOpt.get().getRoles(), sessionId);
+        String newRefresh = jwtUtils.generateRefreshToken(username, sessionId, session.get().jti());
         return ResponseEntity.ok(new AuthResponse(newAccess, newRefresh));
     }
 
+    // ----- DELETE SESSION (logout) -----
+    @PreAuthorize("isAuthenticated()")
+    @DeleteMapping("/sessions")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        // jeton déjà vérifié par JwtAuthenticationFilter (relu depuis VerifiedTokenCache)
+        String sessionId = JwtUtils.sessionId(jwtUtils.verify(authorization.substring(7)));
+        if (sessionId != null) {
+            refreshTokenService.revoke(sessionId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // ----- DELETE ALL SESSIONS (logout everywhere) -----
+    @PreAuthorize("isAuthenticated()")
+    @DeleteMapping("/users/me/sessions")
+    public ResponseEntity<Void> logoutEverywhere(@AuthenticationPrincipal UserDetails principal) {
+        refreshTokenService.revokeAll(principal.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+
     // ----- GET PROFILE -----
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/users/me")
@@ -151,8 +198,11 @@ public class AuthController {
         if (!passwordEncoder.matches(req.getOldPassword(), user.getPassword())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Old password incorrect");
         }
-        user.setPassword(passwordEncoder.encode(req.getNewPassword()));
-        userRepository.save(user);
+        // écriture ciblée (révoque aussi les jetons émis avant le changement)
+        if (!userService.changePassword(username, passwordEncoder.encode(req.getNewPassword()))) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        }
+        userStateCache.invalidateAfterCommit(username);
         return ResponseEntity.ok("Password updated");
     }
 }
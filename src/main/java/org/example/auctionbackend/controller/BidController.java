@@ -1,8 +1,12 @@
 package org.example.auctionbackend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.auctionbackend.cache.IdempotencyCache;
 import org.example.auctionbackend.dto.BidDTO;
 import org.example.auctionbackend.dto.BidRequestDTO;
+import org.example.auctionbackend.dto.CursorPageDTO;
+import org.example.auctionbackend.dto.ProxyBidDTO;
+import org.example.auctionbackend.dto.ProxyBidRequestDTO;
 import org.example.auctionbackend.service.BidService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -10,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 
 import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -17,18 +22,58 @@ import java.security.Principal;
 public class BidController {
 
     private final BidService bidService;
+    private final IdempotencyCache idempotencyCache;
 
+    /**
+     * POST /lots/{lotId}/bids
+     * Avec l'en-tête Idempotency-Key, un rejeu renvoie l'enchère d'origine
+     * sans en placer une nouvelle.
+     */
     @PostMapping("/lots/{lotId}/bids")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<BidDTO> placeBid(
             @PathVariable Long lotId,
+            @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @RequestBody BidRequestDTO dto,
             Principal principal
     ) {
-        BidDTO result = bidService.placeBid(principal.getName(), lotId, dto.getAmount());
+        BidDTO result = idempotencyCache.execute("bid", principal.getName(), idempotencyKey,
+                List.of(lotId, String.valueOf(dto.getAmount())),
+                () -> bidService.placeBid(principal.getName(), lotId, dto.getAmount()));
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(result);
+    }
+
+    /**
+     * POST /lots/{lotId}/proxy-bids
+     * Enregistre une enchère maximale : le serveur surenchérit automatiquement
+     * jusqu'au plafond, intégralement réservé sur le solde tant qu'il mène.
+     */
+    @PostMapping("/lots/{lotId}/proxy-bids")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ProxyBidDTO> placeProxyBid(
+            @PathVariable Long lotId,
+            @RequestBody ProxyBidRequestDTO dto,
+            Principal principal
+    ) {
+        ProxyBidDTO result = bidService.placeProxyBid(principal.getName(), lotId, dto.getMaxAmount());
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(result);
     }
-}
 
+    /**
+     * GET /lots/{lotId}/bids?after={cursor}&size={size}
+     * Historique des enchères d'un lot (montant décroissant), paginé par curseur.
+     * Sans curseur, renvoie la première page ; nextCursor est null sur la dernière.
+     */
+    @GetMapping("/lots/{lotId}/bids")
+    public ResponseEntity<CursorPageDTO<BidDTO>> getBidHistory(
+            @PathVariable Long lotId,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(bidService.getBidHistory(lotId, after, size));
+    }
+}
@@ -4,13 +4,16 @@ import lombok.RequiredArgsConstructor;
 import org.example.auctionbackend.dto.CreateLotRequestDTO;
 import org.example.auctionbackend.dto.LotDTO;
 import org.example.auctionbackend.dto.LotDetailDTO;
+import org.example.auctionbackend.dto.LotUpdateDTO;
 import org.example.auctionbackend.dto.UpdateLotRequestDTO;
 import org.example.auctionbackend.service.LotService;
-import org.springframework.data.domain.Page;
+import org.example.auctionbackend.stream.LotStreamHub;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import java.security.Principal;
@@ -22,18 +25,27 @@ import java.util.List;
 public class LotController {
 
     private final LotService lotService;
+    private final LotStreamHub lotStreamHub;
 
     /**
      * GET /lots?category={id}&page={page}&size={size}
      * Liste paginée des lots, éventuellement filtrés par catégorie.
+     *
+     * GET /lots?category={id}&after={cursor}&size={size}
+     * Mode curseur (keyset) : dès que le paramètre after est présent (vide pour
+     * la première page), renvoie { content, nextCursor } sans total ni OFFSET.
      */
     @GetMapping
-    public Page<LotDTO> listLots(
+    public ResponseEntity<?> listLots(
             @RequestParam(name = "category", required = false) Long categoryId,
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "10") int size
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "after", required = false) String after
     ) {
-        return lotService.listByCategory(categoryId, page, size);
+        if (after != null) {
+            return ResponseEntity.ok(lotService.listByCategoryAfter(categoryId, after, size));
+        }
+        return ResponseEntity.ok(lotService.listByCategory(categoryId, page, size));
     }
 
     /**
@@ -48,12 +60,27 @@ public class LotController {
     }
 
     /**
-     * GET /lots/recent
-     * Renvoie les 8 derniers lots créés.
+     * GET /lots/{id}/stream
+     * Flux SSE de l'état du lot (événement "lot" : prix, meilleur enchérisseur, statut).
+     * Le premier message est l'état courant ; 404 si le lot n'existe pas.
+     */
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLot(@PathVariable Long id) {
+        return lotService.findById(id)
+                .map(d -> new LotUpdateDTO(d.getId(), d.getCurrentBid(), d.getCurrentLeaderUsername(),
+                        d.getStatus(), d.getEndDate()))
+                .map(snapshot -> ResponseEntity.ok(lotStreamHub.subscribe(id, snapshot)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /lots/recent?count={count}
+     * Renvoie les derniers lots créés (8 par défaut).
      */
     @GetMapping("/recent")
-    public List<LotDTO> getRecentLots() {
-        return lotService.findLatestLots(8);
+    public List<LotDTO> getRecentLots(
+            @RequestParam(name = "count", defaultValue = "8") int count) {
+        return lotService.findLatestLots(count);
     }
 
     /**
@@ -1,6 +1,8 @@
 package org.example.auctionbackend.controller;
 
-import org.example.auctionbackend.dto.LotDTO;
+import org.example.auctionbackend.cache.IdempotencyCache;
+import org.example.auctionbackend.dto.FollowedLotDTO;
+import org.example.auctionbackend.dto.SlicePageDTO;
 import org.example.auctionbackend.dto.TransactionDTO;
 import org.example.auctionbackend.dto.TopUpRequestDTO;
 import org.example.auctionbackend.dto.UserProfileDTO;
@@ -29,42 +31,57 @@ public class UserController {
     private final UserRepository userRepository;
     private final TransactionService transactionService;
     private final LotService lotService;
+    private final IdempotencyCache idempotencyCache;
 
     public UserController(UserService userService,
                           UserRepository userRepository,
                           TransactionService transactionService,
-                          LotService lotService) {
+                          LotService lotService,
+                          IdempotencyCache idempotencyCache) {
         this.userService        = userService;
         this.userRepository     = userRepository;
         this.transactionService = transactionService;
         this.lotService         = lotService;
+        this.idempotencyCache   = idempotencyCache;
     }
 
     /**
      * Approvisionner le compte de l'utilisateur authentifié.
+     * Avec l'en-tête Idempotency-Key, un rejeu renvoie la réponse d'origine
+     * sans recréditer le compte.
      */
     @PostMapping("/top-up")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<UserProfileDTO> topUp(
             @AuthenticationPrincipal UserDetails ud,
+            @RequestHeader(name = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody TopUpRequestDTO req) {
 
-        // Créditer le solde via le service
-        userService.topUp(ud.getUsername(), req.getAmount());
+        // en-tête vide : pas de déduplication, et surtout pas de clé "" persistée
+        // (le top-up suivant sans clé serait pris pour un rejeu et non crédité)
+        String key = (idempotencyKey == null || idempotencyKey.isBlank()) ? null : idempotencyKey;
 
-        // Recharger l'utilisateur pour récupérer email et solde exact
-        Optional<User> userOpt = userRepository.findByUsername(ud.getUsername());
-        if (userOpt.isEmpty()) {
+        UserProfileDTO dto = idempotencyCache.execute("top-up", ud.getUsername(), key, req.getAmount(), () -> {
+            // Créditer le solde via le service (renvoie le solde lu en base)
+            Double balance = userService.topUp(ud.getUsername(), req.getAmount(), key);
+
+            // Recharger l'utilisateur pour récupérer l'email
+            Optional<User> userOpt = userRepository.findByUsername(ud.getUsername());
+            if (userOpt.isEmpty()) {
+                return null;
+            }
+            User user = userOpt.get();
+
+            // Construire le DTO
+            return new UserProfileDTO(
+                    user.getUsername(),
+                    user.getEmail(),
+                    balance
+            );
+        });
+        if (dto == null) {
             return ResponseEntity.notFound().build();
         }
-        User user = userOpt.get();
-
-        // Construire et renvoyer le DTO
-        UserProfileDTO dto = new UserProfileDTO(
-                user.getUsername(),
-                user.getEmail(),
-                user.getBalance()
-        );
         return ResponseEntity.ok(dto);
     }
 
@@ -81,14 +98,18 @@ public class UserController {
     }
 
     /**
-     * Récupérer la liste des lots suivis (enchéris) par l'utilisateur.
+     * Récupérer une page des lots suivis (enchéris) par l'utilisateur.
+     * GET /user/followed-lots?page={page}&size={size}
+     * Réponse : { content, page, size, hasNext } ; size est plafonnée.
      */
     @GetMapping("/followed-lots")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<LotDTO>> getFollowedLots(
-            @AuthenticationPrincipal UserDetails ud) {
+    public ResponseEntity<SlicePageDTO<FollowedLotDTO>> getFollowedLots(
+            @AuthenticationPrincipal UserDetails ud,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "50") int size) {
 
-        List<LotDTO> suivis = lotService.getFollowedLots(ud.getUsername());
+        SlicePageDTO<FollowedLotDTO> suivis = lotService.getFollowedLots(ud.getUsername(), page, size);
         return ResponseEntity.ok(suivis);
     }
 }
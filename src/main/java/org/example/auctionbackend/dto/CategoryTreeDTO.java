@@ -12,5 +12,5 @@ import java.util.List;
 public class CategoryTreeDTO {
     private Long id;
     private String name;
-    private List<CategoryDTO> subcategories;
+    private List<CategoryTreeDTO> subcategories;
 }
@@ -0,0 +1,20 @@
+package org.example.auctionbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page allégée pour la pagination par curseur (keyset) : pas de total,
+ * seulement le contenu et le curseur opaque de la page suivante
+ * (null s'il n'y a plus rien à lire).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private String nextCursor;
+}
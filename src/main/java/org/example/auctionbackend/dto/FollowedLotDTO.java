@@ -0,0 +1,22 @@
+package org.example.auctionbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowedLotDTO {
+    private Long id;
+    private String title;
+    private String description;
+    private Long categoryId;
+    private Double initialPrice;
+    private Double currentBid;  // enchère courante
+    private String status;
+    private LocalDateTime endDate;
+    private boolean leading;    // l'utilisateur est-il le meilleur enchérisseur ?
+}
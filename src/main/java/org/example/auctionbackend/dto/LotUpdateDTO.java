@@ -0,0 +1,22 @@
+package org.example.auctionbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * État courant d'un lot poussé aux abonnés de GET /lots/{id}/stream.
+ * Chaque message remplace le précédent : seul le dernier état compte.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LotUpdateDTO {
+    private Long lotId;
+    private Double currentBid;
+    private String currentLeaderUsername;
+    private String status;
+    private LocalDateTime endDate;
+}
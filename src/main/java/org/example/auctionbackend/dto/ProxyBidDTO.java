@@ -0,0 +1,18 @@
+package org.example.auctionbackend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Résultat de l'enregistrement d'une enchère maximale.
+ */
+@Data
+@Builder
+public class ProxyBidDTO {
+    private Long lotId;
+    private Double maxAmount;
+    /** Prix courant du lot après résolution */
+    private Double currentBid;
+    /** true si l'enchère maximale mène le lot (son plafond est réservé) */
+    private boolean leading;
+}
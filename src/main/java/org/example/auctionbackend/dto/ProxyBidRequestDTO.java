@@ -0,0 +1,8 @@
+package org.example.auctionbackend.dto;
+
+import lombok.Data;
+
+@Data
+public class ProxyBidRequestDTO {
+    private Double maxAmount;
+}
@@ -0,0 +1,21 @@
+package org.example.auctionbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page allégée pour la pagination par numéro de page : pas de total (aucun
+ * COUNT), seulement le contenu et l'indication qu'une page suivante existe.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlicePageDTO<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,16 @@
+package org.example.auctionbackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Événement publié lorsqu'une catégorie est créée, modifiée ou supprimée,
+ * pour reconstruire l'index des catégories après le commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+}
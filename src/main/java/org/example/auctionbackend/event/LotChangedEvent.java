@@ -0,0 +1,60 @@
+package org.example.auctionbackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié à chaque modification d'un lot (création, mise à jour,
+ * suppression, changement de statut, nouvelle enchère).
+ *
+ * Contient un instantané des champs utiles aux composants en mémoire
+ * (moteur de clôture, caches…), pour qu'ils n'aient pas à relire la base.
+ * Les écouteurs le reçoivent après le commit de la transaction émettrice.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LotChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STATUS_CHANGED,
+        BID_PLACED
+    }
+
+    private final Type type;
+    private final Long lotId;
+    /** Statut persisté au moment de l'événement */
+    private final LotStatus status;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final Double currentPrice;
+    private final Long currentLeaderId;
+    private final String currentLeaderUsername;
+
+    public static LotChangedEvent of(Type type, Lot lot) {
+        Long leaderId = (lot.getCurrentLeader() != null)
+                ? lot.getCurrentLeader().getId()
+                : null;
+        String leader = (lot.getCurrentLeader() != null)
+                ? lot.getCurrentLeader().getUsername()
+                : null;
+        return new LotChangedEvent(
+                type,
+                lot.getId(),
+                lot.getStatus(),
+                lot.getStartDate(),
+                lot.getEndDate(),
+                lot.getCurrentPrice(),
+                leaderId,
+                leader
+        );
+    }
+}
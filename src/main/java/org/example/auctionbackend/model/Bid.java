@@ -5,14 +5,23 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bids")
+@Table(name = "bids", indexes = {
+        // historique paginé d'un lot : WHERE lot_id = ? ORDER BY amount DESC, id
+        @Index(name = "idx_bids_lot_amount_id", columnList = "lot_id, amount DESC, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Bid {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bid_ids")
+    @TableGenerator(name = "bid_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "bids",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -10,6 +10,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CategoryChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
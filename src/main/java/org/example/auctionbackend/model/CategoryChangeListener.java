@@ -0,0 +1,29 @@
+package org.example.auctionbackend.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.auctionbackend.event.CategoryChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de l'entité Category : signale toute écriture pour que
+ * l'index en mémoire des catégories soit reconstruit.
+ */
+@Component
+public class CategoryChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.auctionbackend.model;
+
+/**
+ * Paramètres communs des générateurs d'identifiants "table" (id_generators).
+ *
+ * Chaque entité a sa ligne dans la table ; un appel réserve un bloc de
+ * ALLOCATION_SIZE ids (optimiseur pooled), distribués ensuite en mémoire.
+ * Contrairement à IDENTITY, Hibernate connaît l'id avant l'INSERT et peut
+ * donc regrouper les insertions en batch JDBC.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String PK_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
@@ -18,7 +18,13 @@ import java.util.Set;
 public class Lot {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "lot_ids")
+    @TableGenerator(name = "lot_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "lots",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     /** Propriétaire du lot */
@@ -65,6 +71,14 @@ public class Lot {
     @JoinColumn(name = "current_leader_id")
     private User currentLeader;
 
+    /**
+     * Verrou optimiste : les écritures "entité" (mise à jour, remise en vente,
+     * transition de statut) échouent si une enchère a modifié le lot entre-temps.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     /** Liste des enchères associées à ce lot */
     @OneToMany(mappedBy = "lot", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Bid> bids;
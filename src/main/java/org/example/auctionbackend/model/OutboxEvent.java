@@ -0,0 +1,57 @@
+package org.example.auctionbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement à traiter hors de la transaction qui l'a produit (outbox).
+ *
+ * Écrit dans la même transaction que l'enchère (il n'existe que si elle est
+ * committée), puis consommé par lots par OutboxDispatcher, qui met à jour les
+ * données dérivées (suivi des lots…) et supprime la ligne. Volontairement
+ * compact : de simples ids, sans clé étrangère, pour que l'insertion parte
+ * dans le même batch JDBC que les autres écritures de l'enchère.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_event_ids")
+    @TableGenerator(name = "outbox_event_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "outbox_events",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxEventType type;
+
+    @Column(name = "lot_id", nullable = false)
+    private Long lotId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** Montant de l'enchère (BID_PLACED) */
+    private Double amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.auctionbackend.model;
+
+/**
+ * Types d'événements déposés dans la table outbox_events.
+ */
+public enum OutboxEventType {
+    /** Enchère acceptée : userId a enchéri sur lotId */
+    BID_PLACED
+}
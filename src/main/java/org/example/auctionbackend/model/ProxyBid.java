@@ -0,0 +1,61 @@
+package org.example.auctionbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Enchère maximale (proxy) d'un utilisateur sur un lot : le moteur surenchérit
+ * automatiquement pour lui jusqu'à maxAmount.
+ *
+ * Au plus une enchère maximale est active par lot, celle du meilleur
+ * enchérisseur ; son plafond est intégralement réservé sur son solde.
+ * Les autres sont inactives (dépassées) et n'ont plus de réservation.
+ */
+@Entity
+@Table(name = "proxy_bids", indexes = {
+        @Index(name = "idx_proxy_bids_lot_active", columnList = "lot_id, active")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProxyBid {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "proxy_bid_ids")
+    @TableGenerator(name = "proxy_bid_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "proxy_bids",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "lot_id", nullable = false)
+    private Lot lot;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /** Plafond : montant maximal que le moteur peut enchérir pour l'utilisateur */
+    @Column(name = "max_amount", nullable = false)
+    private Double maxAmount;
+
+    /** true tant que l'enchère maximale mène le lot (plafond réservé) */
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.auctionbackend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Session de rafraîchissement : la suite des refresh tokens issus d'un même
+ * login (même famille), dont seul le dernier émis (currentJti) est valable.
+ *
+ * Chaque rafraîchissement remplace currentJti de façon atomique ; présenter un
+ * jeton plus ancien de la famille est un rejeu (jeton volé ou rejoué) et
+ * révoque toute la famille. Les jetons d'accès portent l'id de la famille
+ * (claim sid) : révoquer la famille les invalide aussi.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+        @Index(name = "idx_refresh_token_families_rotated", columnList = "rotated_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenFamily {
+
+    /** UUID aléatoire, porté par les jetons (claim sid) */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String username;
+
+    /** jti du seul refresh token valable de la famille */
+    @Column(name = "current_jti", nullable = false, length = 36)
+    private String currentJti;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** Dernière rotation : la famille expire REFRESH_EXPIRATION après */
+    @Column(name = "rotated_at", nullable = false)
+    private LocalDateTime rotatedAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean revoked = false;
+}
@@ -19,7 +19,13 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_ids")
+    @TableGenerator(name = "user_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "users",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -34,6 +40,13 @@ public class User {
     @Column(nullable = false)
     private Double balance = 0.0;
 
+    // Verrou optimiste : le solde est aussi modifié par des UPDATE atomiques
+    // (enchères), une sauvegarde de l'entité lue avant eux doit échouer plutôt
+    // que d'écraser le solde.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // === Gestion du verrouillage de compte ===
 
     // Nombre d’échecs de connexion consécutifs
@@ -49,6 +62,14 @@ public class User {
     // Date/heure du verrouillage
     private LocalDateTime lockTime;
 
+    // Dernier changement de mot de passe : les jetons émis avant sont refusés
+    @Column(name = "credentials_changed_at")
+    private LocalDateTime credentialsChangedAt;
+
+    // Dernière déconnexion de toutes les sessions : les jetons émis avant sont refusés
+    @Column(name = "sessions_revoked_at")
+    private LocalDateTime sessionsRevokedAt;
+
     // roles (existant)
     @Builder.Default
     @ElementCollection(fetch = FetchType.EAGER)
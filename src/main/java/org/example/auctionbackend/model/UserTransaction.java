@@ -5,7 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_transactions")
+@Table(name = "user_transactions", uniqueConstraints = {
+        // un top-up rejoué avec la même Idempotency-Key n'est crédité qu'une fois
+        @UniqueConstraint(name = "uk_user_transactions_idempotency", columnNames = {"user_id", "idempotency_key"})
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -13,7 +16,13 @@ import java.time.LocalDateTime;
 public class UserTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_transaction_ids")
+    @TableGenerator(name = "user_transaction_ids",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "user_transactions",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     /** Utilisateur concerné */
@@ -30,6 +39,10 @@ public class UserTransaction {
     @Column(nullable = false)
     private TransactionType type;
 
+    /** Clé Idempotency-Key de la requête d'origine (top-up), null sinon */
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
     /** Date/heure de la transaction */
     @Column(name = "timestamp", nullable = false, updatable = false)
     private LocalDateTime timestamp;
@@ -1,13 +1,22 @@
 package org.example.auctionbackend.repository;
 
 import org.example.auctionbackend.model.Bid;
+import org.example.auctionbackend.repository.projection.BidView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 public interface BidRepository extends JpaRepository<Bid, Long> {
 
+    /** SELECT commun de l'historique des enchères (servi par l'index bids(lot_id, amount DESC, id)) */
+    String BID_SELECT = "select new org.example.auctionbackend.repository.projection.BidView("
+            + "b.id, b.lot.id, u.id, u.username, b.amount, b.placedAt) "
+            + "from Bid b join b.user u ";
+
     /**
      * Supprime toutes les enchères (bids) associées à un lot donné.
      */
@@ -15,4 +24,23 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     @Transactional
     @Query("DELETE FROM Bid b WHERE b.lot.id = :lotId")
     void deleteAllByLotId(Long lotId);
+
+    /**
+     * Première page de l'historique d'un lot : montant décroissant, puis id croissant
+     * (même ordre que l'index, pas de tri en mémoire ; les égalités de montant sont rares
+     * puisque chaque enchère doit dépasser le prix courant).
+     */
+    @Query(BID_SELECT + "where b.lot.id = :lotId order by b.amount desc, b.id asc")
+    Slice<BidView> findHistory(@Param("lotId") Long lotId, Pageable pageable);
+
+    /**
+     * Page suivante de l'historique (keyset) : enchères strictement "après" (amount, id).
+     */
+    @Query(BID_SELECT + "where b.lot.id = :lotId "
+            + "and (b.amount < :amount or (b.amount = :amount and b.id > :id)) "
+            + "order by b.amount desc, b.id asc")
+    Slice<BidView> findHistoryAfter(@Param("lotId") Long lotId,
+                                    @Param("amount") Double amount,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
 }
@@ -2,38 +2,146 @@ package org.example.auctionbackend.repository;
 
 import org.example.auctionbackend.model.Lot;
 import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.projection.LotBidStateView;
+import org.example.auctionbackend.repository.projection.LotDetailView;
+import org.example.auctionbackend.repository.projection.LotSummaryView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface LotRepository extends JpaRepository<Lot, Long> {
+
+    /** SELECT commun des projections "liste" (une seule requête, sans entité) */
+    String SUMMARY_SELECT = "select new org.example.auctionbackend.repository.projection.LotSummaryView("
+            + "l.id, l.title, l.description, l.category.id, l.initialPrice, l.currentPrice, "
+            + "l.startDate, l.endDate, cl.id) "
+            + "from Lot l left join l.currentLeader cl ";
+
+    /**
+     * Page de lots (toutes catégories), en projection.
+     */
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "select count(l) from Lot l")
+    Page<LotSummaryView> findSummaries(Pageable pageable);
+
     /**
-     * Récupère la page de lots dont les catégories (parent ou enfants) sont dans la liste.
+     * Page de lots dont les catégories (la catégorie et ses descendants) sont dans la liste.
      */
-    Page<Lot> findByCategoryIdIn(List<Long> categoryIds, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "where l.category.id in :categoryIds",
+            countQuery = "select count(l) from Lot l where l.category.id in :categoryIds")
+    Page<LotSummaryView> findSummariesByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds,
+                                                     Pageable pageable);
+
+    /**
+     * Pagination keyset : lots dont l'id est supérieur au curseur, par id croissant.
+     * Le Slice lit size + 1 lignes pour savoir s'il reste une page, sans COUNT.
+     */
+    @Query(SUMMARY_SELECT + "where l.id > :afterId order by l.id asc")
+    Slice<LotSummaryView> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Pagination keyset filtrée par catégories (la catégorie et ses descendants).
+     */
+    @Query(SUMMARY_SELECT + "where l.category.id in :categoryIds and l.id > :afterId order by l.id asc")
+    Slice<LotSummaryView> findSummariesByCategoryIdInAfter(@Param("categoryIds") Collection<Long> categoryIds,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
 
     /**
      * Récupère les derniers lots créés (triés par id décroissant).
      */
-    List<Lot> findAllByOrderByIdDesc(Pageable pageable);
+    @Query(SUMMARY_SELECT + "order by l.id desc")
+    List<LotSummaryView> findRecentSummaries(Pageable pageable);
 
     /**
-     * Récupère tous les lots dont le statut fait partie de la liste et dont la date de fin est avant la date cutoff.
-     * (utilisé par LotCleanupScheduler existant)
+     * Projection "liste" d'un seul lot.
      */
-    List<Lot> findAllByStatusInAndEndDateBefore(List<LotStatus> statuses, LocalDateTime cutoff);
+    @Query(SUMMARY_SELECT + "where l.id = :id")
+    Optional<LotSummaryView> findSummaryById(@Param("id") Long id);
 
     /**
      * Récupère tous les lots dont l’utilisateur propriétaire a pour nom d’utilisateur celui fourni.
      */
-    List<Lot> findByOwnerUsername(String username);
+    @Query(SUMMARY_SELECT + "join l.owner o where o.username = :username")
+    List<LotSummaryView> findSummariesByOwnerUsername(@Param("username") String username);
+
+    /**
+     * Détail d'un lot, propriétaire et meilleur enchérisseur joints dans la même requête.
+     */
+    @Query("select new org.example.auctionbackend.repository.projection.LotDetailView("
+            + "l.id, l.title, l.description, l.category.id, l.initialPrice, l.currentPrice, "
+            + "l.startDate, l.endDate, cl.username, o.username) "
+            + "from Lot l join l.owner o left join l.currentLeader cl "
+            + "where l.id = :id")
+    Optional<LotDetailView> findDetailById(@Param("id") Long id);
+
+    /**
+     * État "enchère" d'un lot (prix, dates, meilleur enchérisseur), en projection.
+     */
+    @Query("select new org.example.auctionbackend.repository.projection.LotBidStateView("
+            + "l.id, l.status, l.startDate, l.endDate, l.initialPrice, l.currentPrice, cl.id, cl.username) "
+            + "from Lot l left join l.currentLeader cl "
+            + "where l.id = :id")
+    Optional<LotBidStateView> findBidStateById(@Param("id") Long id);
+
+    /**
+     * Parmi {@code ids}, ceux des lots qui existent encore (suppressions concurrentes).
+     */
+    @Query("select l.id from Lot l where l.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Acceptation conditionnelle d'une enchère en une seule requête (compare-and-set) :
+     * le lot n'est mis à jour que s'il est ouvert à {@code now} et que son prix courant
+     * est toujours celui lu par l'appelant ({@code expectedPrice}) et inférieur au montant.
+     * Le prix augmentant strictement à chaque enchère, il identifie aussi le meilleur
+     * enchérisseur lu. La version est incrémentée pour les écritures "entité" concurrentes.
+     *
+     * @return 1 si l'enchère est acceptée, 0 si l'état a changé entre-temps
+     */
+    @Modifying
+    @Query("update Lot l set l.currentPrice = :amount, l.currentLeader = :bidder, l.version = l.version + 1 "
+            + "where l.id = :id "
+            + "and l.startDate <= :now and l.endDate >= :now "
+            + "and coalesce(l.currentPrice, l.initialPrice) = :expectedPrice "
+            + "and coalesce(l.currentPrice, l.initialPrice) < :amount")
+    int compareAndSetBid(@Param("id") Long id,
+                         @Param("expectedPrice") Double expectedPrice,
+                         @Param("amount") Double amount,
+                         @Param("bidder") User bidder,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * Récupère tous les lots dont le statut fait partie de la liste et dont la date de fin est avant la date cutoff.
+     * (utilisé par LotCleanupScheduler existant)
+     */
+    List<Lot> findAllByStatusInAndEndDateBefore(List<LotStatus> statuses, LocalDateTime cutoff);
 
     /**
      * NOUVEAU : récupérer tous les lots qui sont toujours IN_PROGRESS mais dont la date de fin est passée
      * → Pour pouvoir basculer ces lots en SOLD/UNSOLD via un scheduler.
      */
     List<Lot> findAllByStatusAndEndDateBefore(LotStatus status, LocalDateTime cutoff);
+
+    /**
+     * Récupère les lots encore PENDING dont la date de début est passée
+     * → Pour les basculer en IN_PROGRESS (ou directement SOLD/UNSOLD) via le scheduler.
+     */
+    List<Lot> findAllByStatusAndStartDateBefore(LotStatus status, LocalDateTime cutoff);
+
+    /**
+     * Récupère tous les lots dont le statut fait partie de la liste
+     * (utilisé au démarrage pour alimenter le moteur de clôture).
+     */
+    List<Lot> findAllByStatusIn(List<LotStatus> statuses);
 }
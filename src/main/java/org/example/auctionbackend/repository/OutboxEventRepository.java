@@ -0,0 +1,26 @@
+package org.example.auctionbackend.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.auctionbackend.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Prochain lot d'événements, verrouillés pour la transaction courante.
+     * Les lignes déjà verrouillées par une autre instance sont sautées
+     * (FOR UPDATE SKIP LOCKED) : plusieurs dispatchers se partagent la file
+     * sans s'attendre.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e order by e.id")
+    List<OutboxEvent> lockNextBatch(Pageable pageable);
+}
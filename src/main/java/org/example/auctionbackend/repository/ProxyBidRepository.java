@@ -0,0 +1,44 @@
+package org.example.auctionbackend.repository;
+
+import org.example.auctionbackend.model.ProxyBid;
+import org.example.auctionbackend.repository.projection.ProxyCeilingView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProxyBidRepository extends JpaRepository<ProxyBid, Long> {
+
+    /**
+     * Plafonds de toutes les enchères maximales actives.
+     */
+    @Query("select new org.example.auctionbackend.repository.projection.ProxyCeilingView("
+            + "p.id, p.lot.id, p.user.id, p.maxAmount) "
+            + "from ProxyBid p where p.active = true")
+    List<ProxyCeilingView> findAllActiveCeilings();
+
+    /**
+     * Enchère maximale active d'un utilisateur sur un lot.
+     */
+    @Query("select p from ProxyBid p where p.lot.id = :lotId and p.user.id = :userId and p.active = true")
+    Optional<ProxyBid> findActive(@Param("lotId") Long lotId, @Param("userId") Long userId);
+
+    /**
+     * Désactive les enchères maximales dépassées.
+     */
+    @Modifying
+    @Query("update ProxyBid p set p.active = false "
+            + "where p.lot.id = :lotId and p.user.id in :userIds and p.active = true")
+    int deactivate(@Param("lotId") Long lotId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Supprime toutes les enchères maximales d'un lot (annulation du lot).
+     */
+    @Modifying
+    @Query("delete from ProxyBid p where p.lot.id = :lotId")
+    void deleteAllByLotId(@Param("lotId") Long lotId);
+}
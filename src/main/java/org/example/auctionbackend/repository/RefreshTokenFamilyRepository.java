@@ -0,0 +1,45 @@
+package org.example.auctionbackend.repository;
+
+import org.example.auctionbackend.model.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    /**
+     * Rotation atomique : n'a lieu que si {@code jti} est le jeton courant d'une famille non révoquée.
+     * @return 1 si la rotation a eu lieu, 0 sinon (rejeu, famille révoquée ou purgée)
+     */
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.currentJti = :next, f.rotatedAt = :now "
+            + "where f.id = :id and f.currentJti = :jti and f.revoked = false")
+    int rotate(@Param("id") String id, @Param("jti") String jti,
+               @Param("next") String next, @Param("now") LocalDateTime now);
+
+    /**
+     * @return 1 si la famille vient d'être révoquée, 0 si elle l'était déjà (ou n'existe pas)
+     */
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.revoked = true where f.id = :id and f.revoked = false")
+    int revoke(@Param("id") String id);
+
+    boolean existsByIdAndRevokedTrue(String id);
+
+    /**
+     * Familles révoquées encore conservées (chargées dans RevokedSessionIndex).
+     */
+    @Query("select f.id from RefreshTokenFamily f where f.revoked = true")
+    List<String> findRevokedIds();
+
+    /**
+     * Supprime les familles dont tous les jetons ont expiré.
+     */
+    @Modifying
+    @Query("delete from RefreshTokenFamily f where f.rotatedAt < :cutoff")
+    int deleteRotatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -4,14 +4,41 @@ package org.example.auctionbackend.repository;
 
 import org.example.auctionbackend.model.UserFollowedLot;
 import org.example.auctionbackend.model.UserFollowedLotId;
+import org.example.auctionbackend.repository.projection.FollowedLotView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserFollowedLotRepository extends JpaRepository<UserFollowedLot, UserFollowedLotId> {
     boolean existsById(UserFollowedLotId id);
 
-    List<UserFollowedLot> findByUserUsernameOrderByLotEndDateAscLotCurrentPriceDesc(String username);
+    /**
+     * Lots suivis par l'utilisateur, en une seule requête (suivi, lot et meilleur
+     * enchérisseur joints) : fin la plus proche d'abord, puis prix décroissant.
+     * Le drapeau "leading" est calculé en SQL.
+     */
+    @Query("select new org.example.auctionbackend.repository.projection.FollowedLotView("
+            + "l.id, l.title, l.description, l.category.id, l.initialPrice, l.currentPrice, "
+            + "l.startDate, l.endDate, cl.id, "
+            + "case when cl.id = u.id then true else false end) "
+            + "from UserFollowedLot f join f.user u join f.lot l left join l.currentLeader cl "
+            + "where u.username = :username "
+            + "order by l.endDate asc, l.currentPrice desc, l.id asc")
+    Slice<FollowedLotView> findFollowedLots(@Param("username") String username, Pageable pageable);
+
+    /**
+     * Suivis existants parmi les couples (utilisateur, lot) candidats, en une requête :
+     * le résultat peut contenir des couples croisés non demandés, filtrés par l'appelant.
+     */
+    @Query("select f.id from UserFollowedLot f where f.lot.id in :lotIds and f.user.id in :userIds")
+    List<UserFollowedLotId> findIdsByLotIdInAndUserIdIn(@Param("lotIds") Collection<Long> lotIds,
+                                                        @Param("userIds") Collection<Long> userIds);
+
     List<UserFollowedLot> findByLotId(Long lotId);
     void deleteByLotId(Long lotId);
 }
@@ -1,10 +1,90 @@
 package org.example.auctionbackend.repository;
 
 import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.projection.UserStateView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    /**
+     * État d'authentification (verrouillage, révocation des jetons) en une requête,
+     * sans la collection des rôles.
+     */
+    @Query("select new org.example.auctionbackend.repository.projection.UserStateView("
+            + "u.accountLocked, u.credentialsChangedAt, u.sessionsRevokedAt) "
+            + "from User u where u.username = :username")
+    Optional<UserStateView> findStateByUsername(@Param("username") String username);
+
+    /**
+     * Verrouillage du compte (seul événement de connexion persisté, cf. LoginAttemptLimiter).
+     * @return 1 si le compte existe
+     */
+    @Modifying
+    @Query("update User u set u.accountLocked = true, u.lockTime = :lockTime, u.version = u.version + 1 "
+            + "where u.username = :username")
+    int lockAccount(@Param("username") String username, @Param("lockTime") LocalDateTime lockTime);
+
+    /**
+     * Levée du verrouillage une fois le délai écoulé.
+     * @return 1 si le compte était verrouillé
+     */
+    @Modifying
+    @Query("update User u set u.accountLocked = false, u.lockTime = null, u.failedAttempts = 0, "
+            + "u.version = u.version + 1 where u.username = :username and u.accountLocked = true")
+    int unlockAccount(@Param("username") String username);
+
+    /**
+     * Déconnexion de toutes les sessions en une écriture, quel que soit leur nombre :
+     * les jetons (accès et refresh) émis avant {@code now} sont refusés.
+     * @return 1 si l'utilisateur existe
+     */
+    @Modifying
+    @Query("update User u set u.sessionsRevokedAt = :now, u.version = u.version + 1 "
+            + "where u.username = :username")
+    int revokeSessions(@Param("username") String username, @Param("now") LocalDateTime now);
+
+    /**
+     * Débit atomique : n'a lieu que si le solde couvre le montant.
+     * @return 1 si le compte a été débité, 0 si le solde est insuffisant
+     */
+    @Modifying
+    @Query("update User u set u.balance = u.balance - :amount, u.version = u.version + 1 "
+            + "where u.id = :id and u.balance >= :amount")
+    int debitBalance(@Param("id") Long id, @Param("amount") Double amount);
+
+    /**
+     * Crédit atomique du solde (remboursement, vente…).
+     */
+    @Modifying
+    @Query("update User u set u.balance = u.balance + :amount, u.version = u.version + 1 "
+            + "where u.id = :id")
+    int creditBalance(@Param("id") Long id, @Param("amount") Double amount);
+
+    /**
+     * Solde lu en base (et non dans le contexte de persistance, qui peut être
+     * en retard sur creditBalance / debitBalance).
+     */
+    @Query("select u.balance from User u where u.id = :id")
+    Double findBalanceById(@Param("id") Long id);
+
+    /**
+     * Changement de mot de passe en une écriture, sans relire ni réécrire
+     * l'entité : pas de conflit de version avec une réservation concurrente.
+     * Les jetons émis avant {@code changedAt} sont révoqués.
+     * @return 1 si l'utilisateur existe
+     */
+    @Modifying
+    @Query("update User u set u.password = :password, u.credentialsChangedAt = :changedAt, "
+            + "u.version = u.version + 1 where u.username = :username")
+    int updatePassword(@Param("username") String username,
+                       @Param("password") String password,
+                       @Param("changedAt") LocalDateTime changedAt);
 }
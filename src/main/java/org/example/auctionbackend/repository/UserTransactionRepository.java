@@ -7,4 +7,9 @@ import java.util.List;
 public interface UserTransactionRepository extends JpaRepository<UserTransaction, Long> {
     List<UserTransaction> findByUserUsernameOrderByTimestampDesc(String username);
 
+    /**
+     * Vrai si une transaction porte déjà cette Idempotency-Key pour l'utilisateur.
+     */
+    boolean existsByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
 }
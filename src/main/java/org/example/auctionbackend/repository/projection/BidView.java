@@ -0,0 +1,16 @@
+package org.example.auctionbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'une enchère pour l'historique d'un lot (enchérisseur joint).
+ */
+public record BidView(
+        Long id,
+        Long lotId,
+        Long userId,
+        String username,
+        Double amount,
+        LocalDateTime placedAt
+) {
+}
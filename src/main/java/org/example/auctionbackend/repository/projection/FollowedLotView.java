@@ -0,0 +1,22 @@
+package org.example.auctionbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'un lot suivi par un utilisateur.
+ *
+ * @param leading true si l'utilisateur est actuellement en tête (calculé en SQL)
+ */
+public record FollowedLotView(
+        Long id,
+        String title,
+        String description,
+        Long categoryId,
+        Double initialPrice,
+        Double currentPrice,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Long currentLeaderId,
+        Boolean leading
+) {
+}
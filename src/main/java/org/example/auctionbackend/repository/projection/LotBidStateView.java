@@ -0,0 +1,28 @@
+package org.example.auctionbackend.repository.projection;
+
+import org.example.auctionbackend.model.LotStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'un lot nécessaire pour valider une enchère (prix, dates, meilleur
+ * enchérisseur), relu en base à chaque tentative sans passer par l'entité.
+ *
+ * @param status statut persisté (le statut effectif se calcule à partir des dates)
+ */
+public record LotBidStateView(
+        Long id,
+        LotStatus status,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Double initialPrice,
+        Double currentPrice,
+        Long currentLeaderId,
+        String currentLeaderUsername
+) {
+
+    /** Prix à battre : mise courante, ou prix initial si aucune enchère */
+    public double priceToBeat() {
+        return (currentPrice != null) ? currentPrice : initialPrice;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.auctionbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection "détail" d'un lot : champs du lot plus les noms du propriétaire
+ * et du meilleur enchérisseur, joints dans la même requête.
+ */
+public record LotDetailView(
+        Long id,
+        String title,
+        String description,
+        Long categoryId,
+        Double initialPrice,
+        Double currentPrice,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        String currentLeaderUsername,
+        String ownerUsername
+) {
+}
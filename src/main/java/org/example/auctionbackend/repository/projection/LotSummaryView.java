@@ -0,0 +1,30 @@
+package org.example.auctionbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection "liste" d'un lot, lue directement par une expression
+ * constructeur JPQL : aucune entité n'est chargée dans le contexte de persistance.
+ *
+ * @param currentLeaderId id du meilleur enchérisseur (null si aucune enchère)
+ */
+public record LotSummaryView(
+        Long id,
+        String title,
+        String description,
+        Long categoryId,
+        Double initialPrice,
+        Double currentPrice,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Long currentLeaderId
+) {
+
+    /**
+     * Copie avec un nouveau prix courant et un nouveau meilleur enchérisseur.
+     */
+    public LotSummaryView withBid(Double newPrice, Long newLeaderId) {
+        return new LotSummaryView(id, title, description, categoryId, initialPrice,
+                newPrice, startDate, endDate, newLeaderId);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.auctionbackend.repository.projection;
+
+/**
+ * Plafond d'une enchère maximale active (chargement du moteur au démarrage).
+ */
+public record ProxyCeilingView(
+        Long id,
+        Long lotId,
+        Long userId,
+        Double maxAmount
+) {
+}
@@ -0,0 +1,19 @@
+package org.example.auctionbackend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'authentification d'un utilisateur, lu sans charger l'entité ni ses rôles.
+ *
+ * @param accountLocked        compte verrouillé (échecs de connexion)
+ * @param credentialsChangedAt dernier changement de mot de passe (null si jamais) :
+ *                             les jetons émis avant sont révoqués
+ * @param sessionsRevokedAt    dernière déconnexion de toutes les sessions (null si jamais) :
+ *                             idem
+ */
+public record UserStateView(
+        boolean accountLocked,
+        LocalDateTime credentialsChangedAt,
+        LocalDateTime sessionsRevokedAt
+) {
+}
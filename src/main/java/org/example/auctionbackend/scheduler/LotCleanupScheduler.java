@@ -1,9 +1,13 @@
 package org.example.auctionbackend.scheduler;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.auctionbackend.event.LotChangedEvent;
 import org.example.auctionbackend.model.Lot;
 import org.example.auctionbackend.model.LotStatus;
 import org.example.auctionbackend.repository.LotRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,28 +16,53 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class LotCleanupScheduler {
 
     private final LotRepository lotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Timer purgeDuration;
+    private final Counter purgedLots;
+
+    public LotCleanupScheduler(LotRepository lotRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry) {
+        this.lotRepository = lotRepository;
+        this.eventPublisher = eventPublisher;
+        this.purgeDuration = Timer.builder("auction.lots.cleanup.duration")
+                .description("Durée de la purge des lots terminés")
+                .register(meterRegistry);
+        this.purgedLots = Counter.builder("auction.lots.cleanup.lots")
+                .description("Lots terminés supprimés par la purge")
+                .register(meterRegistry);
+    }
 
     /**
      * Tous les jours à 2h du matin (heure du serveur), supprime les lots SOLD ou UNSOLD
      * dont la date de fin est supérieure à 7 jours.
+     * Un LotChangedEvent DELETED par lot retire ces lots des caches en mémoire
+     * (derniers lots, détail) après le commit.
      */
     @Scheduled(cron = "0 0 2 * * *")
     @Transactional
     public void purgeOldLots() {
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
+        purgeDuration.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
 
-        // Récupère tous les lots dont le statut est SOLD ou UNSOLD et dont endDate est < cutoff
-        List<Lot> toDelete = lotRepository.findAllByStatusInAndEndDateBefore(
-                List.of(LotStatus.SOLD, LotStatus.UNSOLD),
-                cutoff
-        );
+            // Récupère tous les lots dont le statut est SOLD ou UNSOLD et dont endDate est < cutoff
+            List<Lot> toDelete = lotRepository.findAllByStatusInAndEndDateBefore(
+                    List.of(LotStatus.SOLD, LotStatus.UNSOLD),
+                    cutoff
+            );
 
-        if (!toDelete.isEmpty()) {
-            lotRepository.deleteAll(toDelete);
-        }
+            if (!toDelete.isEmpty()) {
+                lotRepository.deleteAll(toDelete);
+                // construit sans LotChangedEvent.of(...) : inutile de charger le dernier enchérisseur
+                toDelete.forEach(lot -> eventPublisher.publishEvent(new LotChangedEvent(
+                        LotChangedEvent.Type.DELETED, lot.getId(), lot.getStatus(),
+                        lot.getStartDate(), lot.getEndDate(), lot.getCurrentPrice(), null, null)));
+            }
+            purgedLots.increment(toDelete.size());
+        });
     }
 }
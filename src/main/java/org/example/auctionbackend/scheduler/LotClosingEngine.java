@@ -0,0 +1,226 @@
+package org.example.auctionbackend.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.service.LotServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moteur de clôture des lots en mémoire.
+ *
+ * Chaque lot PENDING ou IN_PROGRESS a une seule échéance (startDate ou endDate)
+ * dans une DelayQueue ; un thread dédié la récupère dès qu'elle arrive à terme
+ * et appelle refreshLotStatus(...) dans sa propre transaction. Les lots sont
+ * (re)planifiés via les LotChangedEvent (création, mise à jour, annulation,
+ * changement de statut).
+ *
+ * LotStatusScheduler reste en place comme balayage de secours en base.
+ */
+@Slf4j
+@Component
+public class LotClosingEngine {
+
+    /** On déclenche juste après l'échéance pour que computeStatus(...) voie la transition */
+    private static final long FIRE_OFFSET_MS = 1;
+    /** Délai avant une nouvelle tentative si la transition a échoué */
+    private static final long RETRY_DELAY_MS = 1_000;
+
+    private final LotRepository lotRepository;
+    private final LotServiceImpl lotService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService closingExecutor;
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    /** Échéance courante par lot ; les entrées obsolètes de la file sont ignorées */
+    private final ConcurrentMap<Long, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    private final Timer closingLag;
+    private final Timer closingLatency;
+
+    private volatile Thread worker;
+
+    public LotClosingEngine(LotRepository lotRepository,
+                            LotServiceImpl lotService,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${auction.lots.closing-threads:2}") int closingThreads) {
+        this.lotRepository = lotRepository;
+        this.lotService = lotService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.closingExecutor = Executors.newFixedThreadPool(closingThreads, r -> {
+            Thread t = new Thread(r, "lot-closing");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.closingLag = Timer.builder("auction.lots.closing.lag")
+                .description("Retard entre l'échéance d'un lot et la prise en charge de sa transition")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.closingLatency = Timer.builder("auction.lots.closing.latency")
+                .description("Durée de la transaction de transition de statut")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("auction.lots.closing.scheduled", deadlines, ConcurrentMap::size)
+                .description("Nombre de lots ayant une échéance planifiée")
+                .register(meterRegistry);
+        Gauge.builder("auction.lots.active", deadlines, LotClosingEngine::countClosing)
+                .description("Nombre de lots en cours (échéance de fin planifiée), calculé en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Au démarrage, charge les échéances de tous les lots PENDING et IN_PROGRESS
+     * puis lance le thread de déclenchement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<Lot> active = transactionTemplate.execute(status ->
+                lotRepository.findAllByStatusIn(List.of(LotStatus.PENDING, LotStatus.IN_PROGRESS)));
+        if (active != null) {
+            active.forEach(lot -> schedule(lot.getId(), lot.getStatus(), lot.getStartDate(), lot.getEndDate()));
+        }
+
+        worker = new Thread(this::run, "lot-closing-engine");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+        closingExecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotChanged(LotChangedEvent event) {
+        if (event.getType() == LotChangedEvent.Type.DELETED) {
+            deadlines.remove(event.getLotId());
+            return;
+        }
+        schedule(event.getLotId(), event.getStatus(), event.getStartDate(), event.getEndDate());
+    }
+
+    /**
+     * Planifie la prochaine transition du lot en fonction de son statut persisté :
+     * PENDING → startDate, IN_PROGRESS → endDate, SOLD/UNSOLD → plus rien.
+     */
+    public void schedule(Long lotId, LotStatus status, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime due;
+        if (status == LotStatus.PENDING) {
+            due = startDate;
+        } else if (status == LotStatus.IN_PROGRESS) {
+            due = endDate;
+        } else {
+            deadlines.remove(lotId);
+            return;
+        }
+        long dueMillis = due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        enqueue(new Deadline(lotId, dueMillis, dueMillis + FIRE_OFFSET_MS, status == LotStatus.IN_PROGRESS));
+    }
+
+    /** Lots IN_PROGRESS : ceux dont l'échéance planifiée est leur fin */
+    private static double countClosing(ConcurrentMap<Long, Deadline> deadlines) {
+        return deadlines.values().stream().filter(d -> d.closing).count();
+    }
+
+    private void enqueue(Deadline deadline) {
+        deadlines.put(deadline.lotId, deadline);
+        queue.put(deadline);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Deadline deadline;
+            try {
+                deadline = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // échéance remplacée ou annulée depuis sa mise en file
+            if (!deadlines.remove(deadline.lotId, deadline)) {
+                continue;
+            }
+            closingLag.record(Math.max(0, System.currentTimeMillis() - deadline.dueMillis), TimeUnit.MILLISECONDS);
+            closingExecutor.execute(() -> fire(deadline));
+        }
+    }
+
+    private void fire(Deadline deadline) {
+        try {
+            Optional<Lot> refreshed = closingLatency.record(() -> transactionTemplate.execute(status -> {
+                Optional<Lot> lot = lotRepository.findById(deadline.lotId);
+                lot.ifPresent(lotService::refreshLotStatus);
+                return lot;
+            }));
+            // Replanifie l'échéance suivante (PENDING → IN_PROGRESS → fin)
+            if (refreshed != null) {
+                refreshed.ifPresent(lot -> schedule(lot.getId(), lot.getStatus(), lot.getStartDate(), lot.getEndDate()));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Transition of lot {} failed, retrying in {} ms", deadline.lotId, RETRY_DELAY_MS, ex);
+            long retryAt = System.currentTimeMillis() + RETRY_DELAY_MS;
+            Deadline retry = new Deadline(deadline.lotId, deadline.dueMillis, retryAt, deadline.closing);
+            // ne pas écraser une échéance plus récente posée entre-temps
+            if (deadlines.putIfAbsent(deadline.lotId, retry) == null) {
+                queue.put(retry);
+            }
+        }
+    }
+
+    /**
+     * Échéance d'un lot : dueMillis est l'instant métier (start/end),
+     * fireAtMillis l'instant réel de déclenchement ; closing si c'est la fin du lot.
+     */
+    private static final class Deadline implements Delayed {
+        private final Long lotId;
+        private final long dueMillis;
+        private final long fireAtMillis;
+        private final boolean closing;
+
+        private Deadline(Long lotId, long dueMillis, long fireAtMillis, boolean closing) {
+            this.lotId = lotId;
+            this.dueMillis = dueMillis;
+            this.fireAtMillis = fireAtMillis;
+            this.closing = closing;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(fireAtMillis, ((Deadline) other).fireAtMillis);
+        }
+    }
+}
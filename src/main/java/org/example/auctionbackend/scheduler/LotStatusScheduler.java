@@ -1,47 +1,120 @@
 package org.example.auctionbackend.scheduler;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.example.auctionbackend.model.Lot;
 import org.example.auctionbackend.model.LotStatus;
 import org.example.auctionbackend.repository.LotRepository;
 import org.example.auctionbackend.service.LotServiceImpl;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Scheduler qui s'exécute toutes les minutes (ou selon cron choisi)
- * pour détecter les lots IN_PROGRESS dont endDate est dépassée,
- * puis appeler refreshLotStatus(...) dessus pour forcer le basculement
- * en SOLD ou UNSOLD et créditer le vendeur si nécessaire.
+ * Balayage de secours : détecte les lots dont le statut persisté est en retard
+ * sur les dates (PENDING déjà commencés, IN_PROGRESS dont endDate est dépassée),
+ * puis appelle refreshLotStatus(...) dessus pour forcer le basculement
+ * et créditer le vendeur si nécessaire.
+ *
+ * Les transitions sont normalement déclenchées à l'échéance par LotClosingEngine ;
+ * ce scheduler ne rattrape que ce que le moteur aurait manqué (redémarrage, erreur…).
+ * Les lectures (listes, détail) calculent le statut à la volée sans écrire.
+ *
+ * Chaque lot est rattrapé dans sa propre transaction : un échec (verrou
+ * optimiste perdu face à une enchère…) est journalisé et n'annule pas les
+ * autres transitions ; le lot sera repris au balayage suivant.
+ *
+ * Métriques : auction.lots.sweep.duration, auction.lots.sweep.lots (lots
+ * rattrapés, tag status) et auction.lots.sweep.lag (retard sur l'échéance) ;
+ * en régime normal, les deux derniers restent à zéro.
  */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class LotStatusScheduler {
 
     private final LotRepository lotRepository;
     private final LotServiceImpl lotService; // on a besoin d'appeler refreshLotStatus(...)
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer sweepDuration;
+    private final Timer sweepLag;
+    private final Counter caughtUpPending;
+    private final Counter caughtUpInProgress;
+
+    public LotStatusScheduler(LotRepository lotRepository,
+                              LotServiceImpl lotService,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.lotRepository = lotRepository;
+        this.lotService = lotService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.sweepDuration = Timer.builder("auction.lots.sweep.duration")
+                .description("Durée d'un balayage de secours des statuts")
+                .register(meterRegistry);
+        this.sweepLag = Timer.builder("auction.lots.sweep.lag")
+                .description("Retard entre l'échéance d'un lot et son rattrapage par le balayage")
+                .register(meterRegistry);
+        this.caughtUpPending = Counter.builder("auction.lots.sweep.lots")
+                .description("Lots dont le statut a été rattrapé par le balayage")
+                .tag("status", LotStatus.PENDING.name())
+                .register(meterRegistry);
+        this.caughtUpInProgress = Counter.builder("auction.lots.sweep.lots")
+                .description("Lots dont le statut a été rattrapé par le balayage")
+                .tag("status", LotStatus.IN_PROGRESS.name())
+                .register(meterRegistry);
+    }
 
     /**
-     * Toutes les minutes, on récupère les lots IN_PROGRESS dont endDate < maintenant
-     * et on appelle refreshLotStatus(...) pour chacun.
+     * Récupère les lots PENDING dont startDate < maintenant et les lots IN_PROGRESS
+     * dont endDate < maintenant, puis appelle refreshLotStatus(...) pour chacun.
      *
-     * On pourrait ajuster la fréquence (cron) si on veut plus ou moins souvent.
+     * Fréquence réglable via auction.lots.status-sweep-cron (toutes les 5 minutes par défaut).
      */
-    @Scheduled(cron = "0 * * * * *") // toutes les minutes à 0 seconde
-    @Transactional
+    @Scheduled(cron = "${auction.lots.status-sweep-cron:0 */5 * * * *}")
     public void updateExpiredLotsStatus() {
-        LocalDateTime now = LocalDateTime.now();
-        // Trouver tous les lots encore marqués IN_PROGRESS mais dont endDate est dépassé
-        List<Lot> expiredInProgress = lotRepository.findAllByStatusAndEndDateBefore(LotStatus.IN_PROGRESS, now);
+        sweepDuration.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Lots PENDING dont l'enchère aurait dû commencer
+            List<Lot> startedPending = lotRepository.findAllByStatusAndStartDateBefore(LotStatus.PENDING, now);
+            // Trouver tous les lots encore marqués IN_PROGRESS mais dont endDate est dépassé
+            List<Lot> expiredInProgress = lotRepository.findAllByStatusAndEndDateBefore(LotStatus.IN_PROGRESS, now);
 
-        if (!expiredInProgress.isEmpty()) {
+            for (Lot lot : startedPending) {
+                if (catchUp(lot.getId())) {
+                    sweepLag.record(Duration.between(lot.getStartDate(), now));
+                    caughtUpPending.increment();
+                }
+            }
             for (Lot lot : expiredInProgress) {
-                lotService.refreshLotStatus(lot);
+                if (catchUp(lot.getId())) {
+                    sweepLag.record(Duration.between(lot.getEndDate(), now));
+                    caughtUpInProgress.increment();
+                }
             }
+        });
+    }
+
+    /**
+     * Relit le lot et appelle refreshLotStatus(...) dans une transaction qui lui est propre.
+     *
+     * @return false si la transition a échoué (elle sera retentée au balayage suivant)
+     */
+    private boolean catchUp(Long lotId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    lotRepository.findById(lotId).ifPresent(lotService::refreshLotStatus));
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Status catch-up of lot {} failed, retrying on next sweep", lotId, ex);
+            return false;
         }
     }
 }
@@ -0,0 +1,129 @@
+package org.example.auctionbackend.scheduler;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.OutboxEvent;
+import org.example.auctionbackend.model.OutboxEventType;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.model.UserFollowedLot;
+import org.example.auctionbackend.model.UserFollowedLotId;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.OutboxEventRepository;
+import org.example.auctionbackend.repository.UserFollowedLotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Consomme la table outbox_events hors du chemin critique des enchères.
+ *
+ * Chaque passe verrouille un lot d'événements (SKIP LOCKED : plusieurs
+ * instances peuvent tourner en parallèle), met à jour les données dérivées
+ * en quelques requêtes groupées, puis supprime les événements traités, le
+ * tout dans une seule transaction. En cas d'échec, rien n'est supprimé : le
+ * lot est retraité à la passe suivante (traitement idempotent).
+ *
+ * Données dérivées maintenues : user_followed_lots (un enchérisseur suit le
+ * lot sur lequel il a enchéri).
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxRepository;
+    private final UserFollowedLotRepository followedLotRepository;
+    private final LotRepository lotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepository,
+                            UserFollowedLotRepository followedLotRepository,
+                            LotRepository lotRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${auction.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.followedLotRepository = followedLotRepository;
+        this.lotRepository = lotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Vide la file : enchaîne les lots tant qu'ils sont pleins.
+     *
+     * Fréquence réglable via auction.outbox.poll-ms (500 ms par défaut).
+     */
+    @Scheduled(fixedDelayString = "${auction.outbox.poll-ms:500}")
+    public void drain() {
+        try {
+            Integer drained;
+            do {
+                drained = transactionTemplate.execute(status -> dispatchBatch());
+            } while (drained != null && drained == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Outbox dispatch failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Traite un lot d'événements dans la transaction courante.
+     *
+     * @return nombre d'événements consommés
+     */
+    int dispatchBatch() {
+        List<OutboxEvent> batch = outboxRepository.lockNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<UserFollowedLotId> follows = new LinkedHashSet<>();
+        for (OutboxEvent event : batch) {
+            if (event.getType() == OutboxEventType.BID_PLACED) {
+                follows.add(new UserFollowedLotId(event.getUserId(), event.getLotId()));
+            }
+        }
+        if (!follows.isEmpty()) {
+            followBids(follows);
+        }
+
+        outboxRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        return batch.size();
+    }
+
+    /**
+     * Crée les suivis manquants ; un lot supprimé entre-temps est ignoré.
+     */
+    private void followBids(Set<UserFollowedLotId> wanted) {
+        Set<Long> lotIds = wanted.stream().map(UserFollowedLotId::getLotId).collect(Collectors.toSet());
+        Set<Long> userIds = wanted.stream().map(UserFollowedLotId::getUserId).collect(Collectors.toSet());
+
+        Set<Long> liveLots = new HashSet<>(lotRepository.findExistingIds(lotIds));
+        Set<UserFollowedLotId> existing = new HashSet<>(
+                followedLotRepository.findIdsByLotIdInAndUserIdIn(lotIds, userIds));
+
+        for (UserFollowedLotId id : wanted) {
+            if (liveLots.contains(id.getLotId()) && !existing.contains(id)) {
+                // persist (et non save) : l'id est fourni, save ferait un SELECT par ligne
+                entityManager.persist(UserFollowedLot.builder()
+                        .id(id)
+                        .user(entityManager.getReference(User.class, id.getUserId()))
+                        .lot(entityManager.getReference(Lot.class, id.getLotId()))
+                        .build());
+            }
+        }
+    }
+}
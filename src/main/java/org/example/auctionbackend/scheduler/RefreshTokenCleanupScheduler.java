@@ -0,0 +1,40 @@
+package org.example.auctionbackend.scheduler;
+
+import org.example.auctionbackend.cache.RevokedSessionIndex;
+import org.example.auctionbackend.repository.RefreshTokenFamilyRepository;
+import org.example.auctionbackend.security.JwtUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Component
+public class RefreshTokenCleanupScheduler {
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final RevokedSessionIndex revokedSessions;
+    private final TransactionTemplate transactionTemplate;
+
+    public RefreshTokenCleanupScheduler(RefreshTokenFamilyRepository familyRepository,
+                                        RevokedSessionIndex revokedSessions,
+                                        PlatformTransactionManager transactionManager) {
+        this.familyRepository = familyRepository;
+        this.revokedSessions = revokedSessions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Tous les jours à 2h30 (heure du serveur), supprime les sessions dont le dernier
+     * refresh token a expiré, puis reconstruit le filtre des sessions révoquées
+     * (qui ne contient plus que celles encore en base).
+     */
+    @Scheduled(cron = "0 30 2 * * *")
+    public void purgeExpiredFamilies() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(JwtUtils.REFRESH_EXPIRATION_MS, ChronoUnit.MILLIS);
+        transactionTemplate.executeWithoutResult(status -> familyRepository.deleteRotatedBefore(cutoff));
+        revokedSessions.rebuild();
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.auctionbackend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodeur BCrypt exécuté sur un pool dédié et borné.
+ *
+ * Le hachage (inscription, changement de mot de passe) et la vérification
+ * (login, via DaoAuthenticationProvider) ne consomment plus le CPU des threads
+ * Tomcat. Au plus max-waiters requêtes (en calcul ou en file) attendent un
+ * résultat ; les suivantes sont refusées immédiatement (RejectedExecutionException,
+ * rendue en 503 par GlobalExceptionHandler). Chaque attente bloque un thread
+ * Tomcat : max-waiters doit donc rester loin de server.tomcat.threads.max
+ * (au plus un quart, vérifié au démarrage), sans quoi une rafale de logins
+ * occuperait tous les threads et affamerait la consultation des lots et les
+ * enchères.
+ *
+ * Métriques : auction.password.hash (durée, tag op=encode|matches),
+ * auction.password.waiting, auction.password.queued, auction.password.rejected.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    /** Requêtes Tomcat en attente d'un hachage (en calcul ou en file) */
+    private final Semaphore waiters;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    /**
+     * @param strength      coût BCrypt (log2 des itérations) des nouveaux hachages ;
+     *                      les hachages existants sont vérifiés avec leur propre coût
+     * @param threads        taille du pool ; 0 : un thread par cœur
+     * @param maxWaiters     requêtes en attente d'un hachage au plus (en calcul ou en file)
+     * @param requestThreads threads Tomcat (server.tomcat.threads.max)
+     */
+    public BoundedPasswordEncoder(MeterRegistry meterRegistry,
+                                  @Value("${auction.security.bcrypt.strength:10}") int strength,
+                                  @Value("${auction.security.bcrypt.threads:0}") int threads,
+                                  @Value("${auction.security.bcrypt.max-waiters:10}") int maxWaiters,
+                                  @Value("${server.tomcat.threads.max:200}") int requestThreads) {
+        if (maxWaiters < 1 || maxWaiters > requestThreads / 4) {
+            throw new IllegalStateException("auction.security.bcrypt.max-waiters (" + maxWaiters
+                    + ") must be between 1 and a quarter of server.tomcat.threads.max (" + requestThreads
+                    + "): each waiter blocks a request thread");
+        }
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.waiters = new Semaphore(maxWaiters);
+        int poolSize = (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
+        // la file ne déborde jamais : le sémaphore borne déjà les appelants
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxWaiters), r -> {
+                    Thread t = new Thread(r, "password-hashing");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auction.password.hash")
+                .description("Durée d'un calcul BCrypt, hors attente dans la file")
+                .tag("op", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auction.password.hash")
+                .description("Durée d'un calcul BCrypt, hors attente dans la file")
+                .tag("op", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("auction.password.waiting", waiters, w -> maxWaiters - w.availablePermits())
+                .description("Requêtes en attente d'un hachage (en calcul ou en file)")
+                .register(meterRegistry);
+        Gauge.builder("auction.password.queued", executor.getQueue(), BlockingQueue::size)
+                .description("Hachages de mots de passe en attente d'un thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auction.password.rejected")
+                .description("Hachages refusés car max-waiters requêtes attendent déjà")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer timer, Callable<T> hashing) {
+        if (!waiters.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Authentication is busy, please retry later");
+        }
+        try {
+            return await(executor.submit(() -> timer.recordCallable(hashing)));
+        } finally {
+            waiters.release();
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package org.example.auctionbackend.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.example.auctionbackend.service.UserDetailsServiceImpl;
+import org.example.auctionbackend.cache.RevokedSessionIndex;
+import org.example.auctionbackend.cache.UserStateCache;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -15,16 +21,46 @@ import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authentification sans état : le principal est construit à partir des claims
+ * du jeton (sujet, rôles). Seul l'état de l'utilisateur (verrouillage,
+ * révocation par changement de mot de passe) est consulté, via UserStateCache,
+ * ainsi que la révocation de la session du jeton, via RevokedSessionIndex.
+ *
+ * Métrique : auction.jwt.verification (durée de la vérification, cache compris,
+ * tag result=valid|expired|invalid).
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final UserStateCache userStateCache;
+    private final RevokedSessionIndex revokedSessions;
+    private final Timer validTokens;
+    private final Timer expiredTokens;
+    private final Timer invalidTokens;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils,
+                                   UserStateCache userStateCache,
+                                   RevokedSessionIndex revokedSessions,
+                                   MeterRegistry meterRegistry) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.userStateCache = userStateCache;
+        this.revokedSessions = revokedSessions;
+        this.validTokens = verificationTimer(meterRegistry, "valid");
+        this.expiredTokens = verificationTimer(meterRegistry, "expired");
+        this.invalidTokens = verificationTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auction.jwt.verification")
+                .description("Durée de vérification d'un jeton d'accès")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Override
@@ -42,31 +78,58 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = authHeader.substring(7);
-        String username = null;
+        Claims claims;
+        long start = System.nanoTime();
 
         try {
-            username = jwtUtils.getUsernameFromToken(token);
+            // vérification et lecture des claims en une seule passe (une seule vérification HMAC)
+            claims = jwtUtils.verify(token);
+            if (JwtUtils.isRefreshToken(claims)) {
+                // un refresh token ne sert qu'à POST /tokens
+                throw new JwtException("Refresh token used as access token");
+            }
+            validTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         } catch (ExpiredJwtException e) {
+            expiredTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Token expiré");
             return;
         } catch (JwtException | IllegalArgumentException e) {
+            invalidTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Token invalide");
             return;
         }
 
+        String username = claims.getSubject();
 
         // Authentification uniquement si le contexte est vide
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtils.validateToken(token)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            Optional<UserStateCache.UserState> state = userStateCache.get(username);
+            String sessionId = JwtUtils.sessionId(claims);
+            if (state.isEmpty() || state.get().revokes(claims.getIssuedAt())
+                    || (sessionId != null && revokedSessions.isRevoked(sessionId))) {
+                // utilisateur supprimé, jeton émis avant un changement de mot de passe
+                // ou une déconnexion générale, ou session déconnectée
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.getWriter().write("Token révoqué");
+                return;
             }
+
+            List<GrantedAuthority> authorities = JwtUtils.authorities(claims);
+            UserDetails userDetails = new User(
+                    username,
+                    "",
+                    /* enabled */               true,
+                    /* accountNonExpired */     true,
+                    /* credentialsNonExpired */ true,
+                    /* accountNonLocked */      !state.get().accountLocked(),
+                    authorities);
+
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, authorities);
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
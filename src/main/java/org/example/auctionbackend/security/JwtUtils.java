@@ -2,54 +2,127 @@ package org.example.auctionbackend.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.example.auctionbackend.cache.VerifiedTokenCache;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtUtils {
 
     // Durées d'expiration
     private static final long ACCESS_EXPIRATION_MS  = 15 * 60 * 1000;      // 15 minutes
-    private static final long REFRESH_EXPIRATION_MS = 7 * 24 * 60 * 60 * 1000; // 7 jours
+    public static final long REFRESH_EXPIRATION_MS = 7 * 24 * 60 * 60 * 1000; // 7 jours
+    /** Claim portant les rôles (ROLE_…) dans le jeton d'accès */
+    public static final String ROLES_CLAIM = "roles";
+    /** Claim portant la session (famille de refresh tokens) d'un jeton */
+    public static final String SESSION_CLAIM = "sid";
+    /** Claim distinguant les refresh tokens, refusés comme jetons d'accès */
+    public static final String TYPE_CLAIM = "typ";
+    private static final String REFRESH_TYPE = "refresh";
+
     private static final String SECRET_KEY = "7d516ec5-9258-46e0-9547-46d6da4bf8bd7d516ec5-9258-46e0-9547-46d6da4bf8bd";
 
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
-    public String generateAccessToken(String username) {
-        return Jwts.builder()
+    // Parser immuable et thread-safe : construit une seule fois
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    private final VerifiedTokenCache verifiedTokens;
+
+    public JwtUtils(VerifiedTokenCache verifiedTokens) {
+        this.verifiedTokens = verifiedTokens;
+    }
+
+    /**
+     * Jeton d'accès : porte les rôles, pour que le filtre construise
+     * l'authentification sans relire l'utilisateur en base, et la session
+     * dont il est issu (null : jeton hors session, non révocable individuellement).
+     */
+    public String generateAccessToken(String username, Collection<String> roles, String sessionId) {
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
+                .claim(ROLES_CLAIM, List.copyOf(roles));
+        if (sessionId != null) {
+            builder.claim(SESSION_CLAIM, sessionId);
+        }
+        return builder
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + ACCESS_EXPIRATION_MS))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String generateRefreshToken(String username) {
+    /**
+     * Refresh token : identifié (jti) au sein de sa session, cf. RefreshTokenService.
+     */
+    public String generateRefreshToken(String username, String sessionId, String jti) {
         return Jwts.builder()
                 .setSubject(username)
+                .setId(jti)
+                .claim(SESSION_CLAIM, sessionId)
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + REFRESH_EXPIRATION_MS))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Vérifie le jeton (signature, expiration) et renvoie ses claims, en une
+     * seule passe ; un jeton déjà vérifié est servi par VerifiedTokenCache.
+     *
+     * @throws ExpiredJwtException si le jeton est expiré
+     * @throws JwtException        si le jeton est invalide
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Empty token");
+        }
+        return verifiedTokens.get(token, t -> parser.parseClaimsJws(t).getBody());
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).getSubject();
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM));
+    }
+
+    /**
+     * Session portée par les claims (null si aucune).
+     */
+    public static String sessionId(Claims claims) {
+        return claims.get(SESSION_CLAIM, String.class);
+    }
+
+    /**
+     * Rôles portés par les claims (vide pour un jeton sans rôles, ex. refresh).
+     */
+    public static List<GrantedAuthority> authorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(values.size());
+        for (Object role : values) {
+            authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+        }
+        return authorities;
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -0,0 +1,199 @@
+package org.example.auctionbackend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.auctionbackend.cache.UserStateCache;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Optional;
+
+/**
+ * Limitation des échecs de connexion, en mémoire.
+ *
+ * Les échecs sont comptés sur une fenêtre glissante, par nom d'utilisateur et
+ * par adresse IP. Au-delà du seuil, la clé est bloquée pendant lockDuration :
+ * /sessions refuse alors la tentative avant toute lecture en base ou tout
+ * calcul BCrypt. Seul le verrouillage d'un compte est écrit dans users (une
+ * requête), pour survivre à un redémarrage ; les échecs intermédiaires ne
+ * touchent pas la base.
+ *
+ * Composant unique partagé par AuthController (contrôle avant authentification)
+ * et AuthenticationEventListener (enregistrement des échecs et succès).
+ *
+ * Statistiques exportées sous cache.* (tag cache=loginAttempts).
+ */
+@Slf4j
+@Component
+public class LoginAttemptLimiter {
+
+    private final Cache<String, Window> windows;
+    private final UserRepository userRepository;
+    private final UserStateCache userStateCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxFailures;
+    private final int maxFailuresPerIp;
+    private final Duration window;
+    private final Duration lockDuration;
+
+    public LoginAttemptLimiter(MeterRegistry meterRegistry,
+                               UserRepository userRepository,
+                               UserStateCache userStateCache,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${auction.security.login.max-failures:5}") int maxFailures,
+                               @Value("${auction.security.login.max-failures-per-ip:50}") int maxFailuresPerIp,
+                               @Value("${auction.security.login.window:15m}") Duration window,
+                               @Value("${auction.security.login.lock-duration:15m}") Duration lockDuration,
+                               @Value("${auction.security.login.maximum-keys:100000}") long maximumKeys) {
+        this.userRepository = userRepository;
+        this.userStateCache = userStateCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxFailures = maxFailures;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.window = window;
+        this.lockDuration = lockDuration;
+        // une clé inactive plus longtemps que la fenêtre et le blocage n'a plus d'effet
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(window.compareTo(lockDuration) > 0 ? window : lockDuration)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "loginAttempts");
+    }
+
+    /**
+     * Fin du blocage du compte, d'après l'état en mémoire uniquement.
+     */
+    public Optional<LocalDateTime> lockedUntil(String username) {
+        return blockedUntil(userKey(username));
+    }
+
+    /**
+     * true si l'adresse a dépassé son quota d'échecs.
+     */
+    public boolean isBlocked(String ip) {
+        return ip != null && blockedUntil(ipKey(ip)).isPresent();
+    }
+
+    /**
+     * Fin du verrouillage persisté du compte. Un verrouillage échu est levé
+     * (en base) ; un verrouillage en cours est repris en mémoire, pour que les
+     * tentatives suivantes soient refusées sans relire la base.
+     */
+    public Optional<LocalDateTime> lockedUntil(User user) {
+        if (!user.isAccountLocked()) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = (user.getLockTime() == null) ? now : user.getLockTime().plus(lockDuration);
+        if (now.isBefore(until)) {
+            windows.get(userKey(user.getUsername()), k -> new Window()).blockUntil(until);
+            return Optional.of(until);
+        }
+        persist(user.getUsername(), false, null);
+        return Optional.empty();
+    }
+
+    /**
+     * Enregistre un échec ; verrouille le compte (et le persiste) ou bloque
+     * l'adresse quand le seuil est atteint sur la fenêtre.
+     *
+     * @param ip adresse du client, null si inconnue
+     */
+    public void recordFailure(String username, String ip) {
+        LocalDateTime now = LocalDateTime.now();
+        if (username != null && windows.get(userKey(username), k -> new Window())
+                .fail(now, window, maxFailures, lockDuration)) {
+            persist(username, true, now);
+        }
+        if (ip != null) {
+            windows.get(ipKey(ip), k -> new Window()).fail(now, window, maxFailuresPerIp, lockDuration);
+        }
+    }
+
+    /**
+     * Connexion réussie : remet à zéro les échecs du compte (pas ceux de l'adresse,
+     * qu'un attaquant pourrait sinon blanchir avec son propre compte).
+     */
+    public void recordSuccess(String username) {
+        windows.invalidate(userKey(username));
+    }
+
+    private Optional<LocalDateTime> blockedUntil(String key) {
+        Window w = windows.getIfPresent(key);
+        return (w == null) ? Optional.empty() : w.blockedUntil(LocalDateTime.now());
+    }
+
+    /**
+     * Écrit le verrouillage (ou sa levée) ; en cas d'échec, le blocage en
+     * mémoire reste actif et le compte est reverrouillé au prochain dépassement.
+     */
+    private void persist(String username, boolean locked, LocalDateTime lockTime) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int updated = locked
+                        ? userRepository.lockAccount(username, lockTime)
+                        : userRepository.unlockAccount(username);
+                if (updated > 0) {
+                    userStateCache.invalidateAfterCommit(username);
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not persist lock state of {}: {}", username, ex.getMessage());
+        }
+    }
+
+    private static String userKey(String username) {
+        return "u:" + username;
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+
+    /**
+     * Échecs récents d'une clé (au plus le seuil) et fin de blocage éventuelle.
+     */
+    static final class Window {
+        private final ArrayDeque<LocalDateTime> failures = new ArrayDeque<>();
+        private LocalDateTime blockedUntil;
+
+        /**
+         * @return true si cet échec déclenche le blocage
+         */
+        synchronized boolean fail(LocalDateTime now, Duration window, int max, Duration lockDuration) {
+            if (blockedUntil != null && now.isBefore(blockedUntil)) {
+                return false;
+            }
+            LocalDateTime from = now.minus(window);
+            while (!failures.isEmpty() && !failures.peekFirst().isAfter(from)) {
+                failures.pollFirst();
+            }
+            failures.addLast(now);
+            if (failures.size() < max) {
+                return false;
+            }
+            failures.clear();
+            blockedUntil = now.plus(lockDuration);
+            return true;
+        }
+
+        synchronized void blockUntil(LocalDateTime until) {
+            blockedUntil = until;
+        }
+
+        synchronized Optional<LocalDateTime> blockedUntil(LocalDateTime now) {
+            return (blockedUntil != null && now.isBefore(blockedUntil)) ? Optional.of(blockedUntil) : Optional.empty();
+        }
+    }
+}
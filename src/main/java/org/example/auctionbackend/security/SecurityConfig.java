@@ -5,6 +5,7 @@ import org.example.auctionbackend.service.UserDetailsServiceImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -12,7 +13,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
@@ -30,6 +30,7 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final AuthenticationEntryPoint authEntryPoint;
     private final AccessDeniedHandler accessDeniedHandler;
+    private final PasswordEncoder passwordEncoder;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
@@ -56,6 +57,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST,   "/lots").authenticated()
 
                         .requestMatchers(HttpMethod.GET, "/lots/recent").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/lots/*/bids").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/lots/*/stream").permitAll()
                         .requestMatchers(HttpMethod.GET, "/lots/*").permitAll()
                         .requestMatchers(HttpMethod.GET, "/lots").permitAll()
 
@@ -63,6 +66,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET,  "/user/transactions").authenticated()
                         .requestMatchers(HttpMethod.GET,  "/user/followed-lots").authenticated()
 
+                        // servis uniquement sur le port de gestion, lié à 127.0.0.1 (management.server.*)
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
+
                         .anyRequest().authenticated()
                 )
                 .authenticationManager(authManager)
@@ -75,17 +81,17 @@ public class SecurityConfig {
     public DaoAuthenticationProvider daoAuthProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
         return provider;
     }
 
+    /**
+     * Publie les succès/échecs d'authentification (AuthenticationEventListener).
+     */
     @Bean
-    public AuthenticationManager authenticationManager() {
-        return new ProviderManager(daoAuthProvider());
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationManager authenticationManager(AuthenticationEventPublisher eventPublisher) {
+        ProviderManager manager = new ProviderManager(daoAuthProvider());
+        manager.setAuthenticationEventPublisher(eventPublisher);
+        return manager;
     }
 }
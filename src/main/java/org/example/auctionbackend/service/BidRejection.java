@@ -0,0 +1,42 @@
+package org.example.auctionbackend.service;
+
+/**
+ * Causes de refus d'une enchère : message de l'exception levée, et tag
+ * "reason" du timer auction.bids.place.
+ */
+enum BidRejection {
+
+    USER_NOT_FOUND("user_not_found", "User not found"),
+    LOT_NOT_FOUND("lot_not_found", "No lot"),
+    NOT_OPEN("not_open", "Bids on this lot are not open"),
+    TOO_LOW("too_low", "The amount must be higher than the current price"),
+    INSUFFICIENT_BALANCE("insufficient_balance", "Insufficient balance to place this bid"),
+    ALREADY_LEADING("already_leading", "You're already the highest bidder"),
+    CEILING_NOT_RAISED("ceiling_not_raised", "The maximum must be higher than your current maximum"),
+    CONTENTION("contention", "Too many concurrent bids on this lot, please retry"),
+    BUSY("busy", "Lot is busy, please retry");
+
+    private final String tag;
+    private final String message;
+
+    BidRejection(String tag, String message) {
+        this.tag = tag;
+        this.message = message;
+    }
+
+    String message() {
+        return message;
+    }
+
+    /**
+     * Tag de la cause d'un refus ; "other" pour une erreur inattendue.
+     */
+    static String tagOf(Throwable ex) {
+        for (BidRejection rejection : values()) {
+            if (rejection.message.equals(ex.getMessage())) {
+                return rejection.tag;
+            }
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.auctionbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Sérialise les enchères par lot à l'aide de verrous "striped".
+ *
+ * Chaque lot est associé à un verrou parmi un tableau fixe (id du lot modulo
+ * le nombre de stripes) : deux enchères sur un même lot s'exécutent l'une après
+ * l'autre, les enchères sur des lots différents restent parallèles (sauf
+ * collision de stripe). Aucun verrou global ni verrou de table en base.
+ *
+ * Le verrou doit englober toute la transaction (commit compris), sinon
+ * l'enchère suivante pourrait lire un prix pas encore committé.
+ */
+@Component
+public class BidSequencer {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final long timeoutNanos;
+
+    public BidSequencer(@Value("${auction.bids.lock-stripes:256}") int stripes,
+                        @Value("${auction.bids.lock-timeout:2s}") Duration timeout) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        // arrondi à la puissance de 2 supérieure pour remplacer le modulo par un masque
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            // non équitable : meilleur débit, l'ordre d'arrivée exact n'a pas d'importance
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Exécute {@code action} en exclusion mutuelle avec toutes les autres actions
+     * sur le même lot. Si le verrou n'est pas obtenu dans le délai configuré,
+     * l'enchère est refusée (le lot est trop sollicité) plutôt que d'empiler les threads.
+     *
+     * @throws LotBusyException si le verrou n'est pas obtenu à temps (503, à réessayer)
+     */
+    public <T> T withLock(Long lotId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(lotId);
+        try {
+            if (!lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new LotBusyException(BidRejection.BUSY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lot " + lotId, e);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    int stripeOf(Long lotId) {
+        // les ids sont séquentiels : les bits de poids faible suffisent à bien répartir
+        return Long.hashCode(lotId) & mask;
+    }
+
+    private ReentrantLock lockFor(Long lotId) {
+        return locks[stripeOf(lotId)];
+    }
+}
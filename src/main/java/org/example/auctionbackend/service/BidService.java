@@ -1,6 +1,8 @@
 package org.example.auctionbackend.service;
 
 import org.example.auctionbackend.dto.BidDTO;
+import org.example.auctionbackend.dto.CursorPageDTO;
+import org.example.auctionbackend.dto.ProxyBidDTO;
 
 public interface BidService {
     /**
@@ -11,4 +13,25 @@ public interface BidService {
      * @return DTO de l'enchère créée
      */
     BidDTO placeBid(String username, Long lotId, Double amount);
+
+    /**
+     * Enregistre (ou relève) l'enchère maximale de l'utilisateur sur un lot :
+     * le moteur surenchérit pour lui jusqu'au plafond, qui est réservé sur son solde.
+     * @param username  le nom d'utilisateur
+     * @param lotId     l'id du lot
+     * @param maxAmount le plafond
+     * @return plafond, prix courant après résolution et position de l'utilisateur
+     */
+    ProxyBidDTO placeProxyBid(String username, Long lotId, Double maxAmount);
+
+    /**
+     * Historique des enchères d'un lot, paginé par curseur
+     * (montant décroissant).
+     * @param lotId l'id du lot
+     * @param after curseur opaque de la page précédente (null ou vide pour la première page)
+     * @param size  taille de page, ramenée dans [1, auction.bids.history.max-page-size]
+     * @throws InvalidCursorException si le curseur est illisible
+     * @return contenu et curseur de la page suivante
+     */
+    CursorPageDTO<BidDTO> getBidHistory(Long lotId, String after, int size);
 }
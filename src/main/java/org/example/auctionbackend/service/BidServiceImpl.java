@@ -1,120 +1,400 @@
 package org.example.auctionbackend.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.auctionbackend.dto.BidDTO;
+import org.example.auctionbackend.dto.CursorPageDTO;
+import org.example.auctionbackend.dto.ProxyBidDTO;
+import org.example.auctionbackend.event.LotChangedEvent;
 import org.example.auctionbackend.model.*;
 import org.example.auctionbackend.repository.*;
+import org.example.auctionbackend.repository.projection.BidView;
+import org.example.auctionbackend.repository.projection.LotBidStateView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
-@RequiredArgsConstructor
 public class BidServiceImpl implements BidService {
 
+    /** Nombre maximal de tentatives de compare-and-set sur le lot */
+    private static final int MAX_ACCEPT_ATTEMPTS = 3;
+
     private final LotRepository lotRepository;
     private final UserRepository userRepository;
     private final BidRepository bidRepository;
-    private final UserFollowedLotRepository followedLotRepository;
+    private final OutboxEventRepository outboxRepository;
     private final UserTransactionRepository transactionRepository;
-    private final LotServiceImpl lotService; // pour rafraîchir le status
+    private final ProxyBidRepository proxyBidRepository;
+    private final ProxyBidEngine proxyBidEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BidSequencer bidSequencer;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer acceptedBids;
+    private final Timer acceptedProxyBids;
+    /** Taille maximale d'une page de GET /lots/{id}/bids */
+    private final int historyMaxPageSize;
+
+    public BidServiceImpl(LotRepository lotRepository,
+                          UserRepository userRepository,
+                          BidRepository bidRepository,
+                          OutboxEventRepository outboxRepository,
+                          UserTransactionRepository transactionRepository,
+                          ProxyBidRepository proxyBidRepository,
+                          ProxyBidEngine proxyBidEngine,
+                          ApplicationEventPublisher eventPublisher,
+                          BidSequencer bidSequencer,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${auction.bids.history.max-page-size:100}") int historyMaxPageSize) {
+        this.lotRepository = lotRepository;
+        this.userRepository = userRepository;
+        this.bidRepository = bidRepository;
+        this.outboxRepository = outboxRepository;
+        this.transactionRepository = transactionRepository;
+        this.proxyBidRepository = proxyBidRepository;
+        this.proxyBidEngine = proxyBidEngine;
+        this.eventPublisher = eventPublisher;
+        this.bidSequencer = bidSequencer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.acceptedBids = bidTimer("manual", "accepted", "none");
+        this.acceptedProxyBids = bidTimer("proxy", "accepted", "none");
+        this.historyMaxPageSize = historyMaxPageSize;
+    }
 
+    /**
+     * Les enchères d'un même lot sont sérialisées par BidSequencer ; la transaction
+     * est ouverte et committée sous le verrou (d'où NOT_SUPPORTED ici et le
+     * TransactionTemplate à l'intérieur), pour que l'enchère suivante lise
+     * toujours le prix committé par la précédente.
+     */
     @Override
     @PreAuthorize("isAuthenticated()")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BidDTO placeBid(String username, Long lotId, Double amount) {
-        // 1. Charger user & lot
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        Lot lot = lotRepository.findById(lotId)
-                .orElseThrow(() -> new IllegalArgumentException("No lot"));
-
-        // 1.1 Mettre à jour le statut du lot en fonction des dates
-        lotService.refreshLotStatus(lot);
-        // recharger le lot après mise à jour éventuelle du status
-        lot = lotRepository.findById(lotId).orElseThrow();
-
-        // 2. Vérifications métier sur le statut
-        if (lot.getStatus() != LotStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Bids on this lot are not open");
-        }
+        return timed(acceptedBids, "manual", () -> bidSequencer.withLock(lotId, () ->
+                transactionTemplate.execute(status -> doPlaceBid(username, lotId, amount))));
+    }
+
+    @Override
+    @PreAuthorize("isAuthenticated()")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProxyBidDTO placeProxyBid(String username, Long lotId, Double maxAmount) {
+        return timed(acceptedProxyBids, "proxy", () -> bidSequencer.withLock(lotId, () ->
+                transactionTemplate.execute(status -> doPlaceProxyBid(username, lotId, maxAmount))));
+    }
 
-        // 3. Vérifier que le montant est supérieur au prix courant
-        Double currentPrice = (lot.getCurrentPrice() != null)
-                ? lot.getCurrentPrice()
-                : lot.getInitialPrice();
-        if (amount <= currentPrice) {
-            throw new IllegalArgumentException("The amount must be higher than the current price");
+    /**
+     * Mesure une enchère de bout en bout (attente du verrou comprise) :
+     * auction.bids.place, tags type, outcome (accepted/rejected) et reason.
+     */
+    private <T> T timed(Timer accepted, String type, Supplier<T> bid) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = bid.get();
+            sample.stop(accepted);
+            return result;
+        } catch (RuntimeException ex) {
+            sample.stop(bidTimer(type, "rejected", BidRejection.tagOf(ex)));
+            throw ex;
         }
+    }
+
+    private Timer bidTimer(String type, String outcome, String reason) {
+        return Timer.builder("auction.bids.place")
+                .description("Durée d'une enchère (verrou, transaction, commit), par issue")
+                .tags("type", type, "outcome", outcome, "reason", reason)
+                // histogramme sur toutes les séries : Prometheus impose un même type par nom
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private BidDTO doPlaceBid(String username, Long lotId, Double amount) {
+        // 1. Charger l'enchérisseur
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException(BidRejection.USER_NOT_FOUND.message()));
+
+        // 2. Résoudre l'enchère contre les plafonds actifs puis l'appliquer au lot (compare-and-set)
+        Accepted accepted = acceptOnLot(user, lotId, amount, false);
+        ProxyBidEngine.Resolution r = accepted.resolution();
+
+        // 3. Réservations, historique, événement, outbox
+        Bid bid = settle(user, lotId, amount, accepted);
+
+        // 4. Plafonds actifs : celui du leader qui a défendu, ou plus aucun
+        proxyBidEngine.replaceAfterCommit(lotId, r.challengerWon() ? null : r.defenderCeiling());
+
+        // 5. Retourner le DTO de la nouvelle enchère
+        return BidDTO.builder()
+                .id(bid.getId())
+                .lotId(lotId)
+                .userId(user.getId())
+                .username(user.getUsername())
+                .amount(bid.getAmount())
+                .placedAt(Instant.now())
+                .build();
+    }
 
-        // 4. Vérifier solde utilisateur
-        if (user.getBalance() < amount) {
-            throw new IllegalArgumentException("Insufficient balance to place this bid");
+    private ProxyBidDTO doPlaceProxyBid(String username, Long lotId, Double maxAmount) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException(BidRejection.USER_NOT_FOUND.message()));
+
+        Accepted accepted = acceptOnLot(user, lotId, maxAmount, true);
+        if (accepted.resolution() == null) {
+            // le meilleur enchérisseur relève son propre plafond : le prix ne bouge pas
+            return raiseOwnCeiling(user, accepted.state(), maxAmount);
         }
+        ProxyBidEngine.Resolution r = accepted.resolution();
+
+        ProxyBid proxy = proxyBidRepository.save(ProxyBid.builder()
+                .lot(lotRepository.getReferenceById(lotId))
+                .user(user)
+                .maxAmount(maxAmount)
+                .active(r.challengerWon())
+                .build());
+        settle(user, lotId, maxAmount, accepted);
+
+        proxyBidEngine.replaceAfterCommit(lotId, r.challengerWon()
+                ? new ProxyBidEngine.Ceiling(user.getId(), maxAmount, proxy.getId())
+                : r.defenderCeiling());
+
+        return ProxyBidDTO.builder()
+                .lotId(lotId)
+                .maxAmount(maxAmount)
+                .currentBid(r.price())
+                .leading(r.challengerWon())
+                .build();
+    }
+
+    /**
+     * Applique une résolution acceptée : réservations (le gagnant réserve son
+     * montant ou son plafond, le leader évincé récupère sa réservation),
+     * plafonds dépassés, historique des enchères, événement et dépôt dans l'outbox (suivi du lot).
+     *
+     * @return l'enchère inscrite pour {@code user}
+     */
+    private Bid settle(User user, Long lotId, double amount, Accepted accepted) {
+        LotBidStateView state = accepted.state();
+        ProxyBidEngine.Resolution r = accepted.resolution();
 
-        // 5. Vérifier que l'utilisateur n'est pas déjà le meilleur enchérisseur
-        if (lot.getCurrentLeader() != null
-                && lot.getCurrentLeader().getId().equals(user.getId())) {
-            throw new IllegalArgumentException("You're already the highest bidder");
+        // Débiter d'abord le nouvel enchérisseur (refusé si le solde ne couvre pas
+        // le montant ; l'exception annule aussi la mise à jour du lot)
+        if (r.challengerWon()) {
+            reserve(user, amount);
+            if (state.currentLeaderId() != null) {
+                refund(state.currentLeaderId(), r.previousLeaderReservation());
+            }
+        }
+        if (!r.exhaustedUserIds().isEmpty()) {
+            proxyBidRepository.deactivate(lotId, r.exhaustedUserIds());
         }
 
-        // 6. Rembourser l’ancien leader si nécessaire
-        User prev = lot.getCurrentLeader();
-        if (prev != null) {
-            double prevAmt = currentPrice;
-            prev.setBalance(prev.getBalance() + prevAmt);
-            transactionRepository.save(UserTransaction.builder()
-                    .user(prev)
-                    .amount(prevAmt)
-                    .type(TransactionType.BID_REFUND)
+        Lot lotRef = lotRepository.getReferenceById(lotId);
+        Bid own = null;
+        LocalDateTime placedAt = LocalDateTime.now();
+        for (ProxyBidEngine.BidRecord record : r.bids()) {
+            boolean mine = record.userId().equals(user.getId());
+            Bid bid = bidRepository.save(Bid.builder()
+                    .lot(lotRef)
+                    .user(mine ? user : userRepository.getReferenceById(record.userId()))
+                    .amount(record.amount())
+                    .placedAt(placedAt)
                     .build());
-            userRepository.save(prev);
+            if (mine) {
+                own = bid;
+            }
         }
 
-        // 7. Débiter le compte du nouvel enchérisseur
-        user.setBalance(user.getBalance() - amount);
+        // Un seul événement : le prix et le leader résultants
+        eventPublisher.publishEvent(new LotChangedEvent(
+                LotChangedEvent.Type.BID_PLACED,
+                lotId,
+                state.status(),
+                state.startDate(),
+                state.endDate(),
+                r.price(),
+                r.winnerId(),
+                r.challengerWon() ? user.getUsername() : state.currentLeaderUsername()));
+
+        // Suivi du lot (et tout traitement dérivé) : déporté vers OutboxDispatcher,
+        // une seule insertion qui part dans le même batch que les précédentes
+        outboxRepository.save(OutboxEvent.builder()
+                .type(OutboxEventType.BID_PLACED)
+                .lotId(lotId)
+                .userId(user.getId())
+                .amount(amount)
+                .build());
+        return own;
+    }
+
+    /**
+     * Le leader enregistre ou relève son plafond : sa réservation actuelle
+     * (ancien plafond, ou prix s'il menait par une enchère manuelle) est
+     * remplacée par le nouveau plafond.
+     */
+    private ProxyBidDTO raiseOwnCeiling(User user, LotBidStateView state, double maxAmount) {
+        Long lotId = state.id();
+        Optional<ProxyBidEngine.Ceiling> own = proxyBidEngine.ceilingOf(lotId, user.getId());
+        double reserved = own.map(ProxyBidEngine.Ceiling::maxAmount).orElse(state.priceToBeat());
+        if (maxAmount <= reserved) {
+            throw new IllegalArgumentException(BidRejection.CEILING_NOT_RAISED.message());
+        }
+        // seul l'écart avec la réservation actuelle est à couvrir par le solde libre
+        if (user.getBalance() < maxAmount - reserved) {
+            throw new IllegalArgumentException(BidRejection.INSUFFICIENT_BALANCE.message());
+        }
+
+        // remboursement puis débit atomique : un échec du débit annule les deux
+        refund(user.getId(), reserved);
+        reserve(user, maxAmount);
+
+        ProxyBid proxy = proxyBidRepository.findActive(lotId, user.getId())
+                .orElseGet(() -> ProxyBid.builder()
+                        .lot(lotRepository.getReferenceById(lotId))
+                        .user(user)
+                        .active(true)
+                        .build());
+        proxy.setMaxAmount(maxAmount);
+        proxy = proxyBidRepository.save(proxy);
+
+        long seq = own.map(ProxyBidEngine.Ceiling::seq).orElse(proxy.getId());
+        proxyBidEngine.replaceAfterCommit(lotId, new ProxyBidEngine.Ceiling(user.getId(), maxAmount, seq));
+
+        return ProxyBidDTO.builder()
+                .lotId(lotId)
+                .maxAmount(maxAmount)
+                .currentBid(state.priceToBeat())
+                .leading(true)
+                .build();
+    }
+
+    /** Débit atomique + écriture BID_RESERVE */
+    private void reserve(User user, double amount) {
+        if (userRepository.debitBalance(user.getId(), amount) == 0) {
+            throw new IllegalArgumentException(BidRejection.INSUFFICIENT_BALANCE.message());
+        }
         transactionRepository.save(UserTransaction.builder()
                 .user(user)
                 .amount(-amount)
                 .type(TransactionType.BID_RESERVE)
                 .build());
-        userRepository.save(user);
+    }
 
-        // 8. Créer la nouvelle Bid
-        Bid bid = Bid.builder()
-                .lot(lot)
-                .user(user)
+    /** Crédit atomique + écriture BID_REFUND */
+    private void refund(Long userId, double amount) {
+        userRepository.creditBalance(userId, amount);
+        transactionRepository.save(UserTransaction.builder()
+                .user(userRepository.getReferenceById(userId))
                 .amount(amount)
-                .placedAt(LocalDateTime.now())
-                .build();
-        bid = bidRepository.save(bid);
-
-        // 9. Mettre à jour le lot (currentPrice + currentLeader)
-        lot.setCurrentPrice(amount);
-        lot.setCurrentLeader(user);
-        lotRepository.save(lot);
-
-        // 10. Suivre le lot si pas déjà suivi
-        UserFollowedLotId key = new UserFollowedLotId(user.getId(), lot.getId());
-        if (!followedLotRepository.existsById(key)) {
-            followedLotRepository.save(UserFollowedLot.builder()
-                    .id(key)
-                    .user(user)
-                    .lot(lot)
-                    .build());
+                .type(TransactionType.BID_REFUND)
+                .build());
+    }
+
+    /**
+     * Lit l'état du lot, valide l'enchère, la résout contre les plafonds actifs
+     * puis tente le compare-and-set avec le prix et le leader résultants.
+     * Si une écriture concurrente (autre instance, clôture…) a modifié le lot entre
+     * la lecture et la mise à jour, on relit et on revalide, au plus
+     * MAX_ACCEPT_ATTEMPTS fois, puis on refuse avec LotBusyException (503, à réessayer).
+     *
+     * @param amount montant de l'enchère, ou plafond pour une enchère maximale
+     * @return l'état lu juste avant l'acceptation et la résolution appliquée ;
+     *         résolution null si le leader relève son propre plafond (rien n'est écrit)
+     */
+    private Accepted acceptOnLot(User user, Long lotId, Double amount, boolean proxy) {
+        for (int attempt = 0; attempt < MAX_ACCEPT_ATTEMPTS; attempt++) {
+            LotBidStateView state = lotRepository.findBidStateById(lotId)
+                    .orElseThrow(() -> new IllegalArgumentException(BidRejection.LOT_NOT_FOUND.message()));
+            LocalDateTime now = LocalDateTime.now();
+
+            // Statut calculé à partir des dates
+            if (LotServiceImpl.computeStatus(state.startDate(), state.endDate(),
+                    state.currentLeaderId() != null, now) != LotStatus.IN_PROGRESS) {
+                throw new IllegalStateException(BidRejection.NOT_OPEN.message());
+            }
+            double currentPrice = state.priceToBeat();
+            if (amount <= currentPrice) {
+                throw new IllegalArgumentException(BidRejection.TOO_LOW.message());
+            }
+            if (user.getId().equals(state.currentLeaderId())) {
+                if (proxy) {
+                    // solde vérifié par raiseOwnCeiling : sa réservation actuelle lui est rendue
+                    return new Accepted(state, null);
+                }
+                throw new IllegalArgumentException(BidRejection.ALREADY_LEADING.message());
+            }
+            if (user.getBalance() < amount) {
+                throw new IllegalArgumentException(BidRejection.INSUFFICIENT_BALANCE.message());
+            }
+
+            ProxyBidEngine.Resolution r = proxyBidEngine.resolve(state, user.getId(), amount, proxy);
+            User winner = r.challengerWon() ? user : userRepository.getReferenceById(r.winnerId());
+            if (lotRepository.compareAndSetBid(lotId, currentPrice, r.price(), winner, now) == 1) {
+                return new Accepted(state, r);
+            }
+        }
+        // enchère valide, seulement perdue face aux écritures concurrentes : à réessayer
+        throw new LotBusyException(BidRejection.CONTENTION);
+    }
+
+    /** État du lot lu avant le compare-and-set, et résolution appliquée */
+    private record Accepted(LotBidStateView state, ProxyBidEngine.Resolution resolution) {
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BidDTO> getBidHistory(Long lotId, String after, int size) {
+        PageRequest pr = PageRequest.of(0, Math.max(1, Math.min(size, historyMaxPageSize)));
+        Slice<BidView> slice;
+        if (after == null || after.isEmpty()) {
+            slice = bidRepository.findHistory(lotId, pr);
+        } else {
+            String[] keys = CursorCodec.decode(after, 2);
+            try {
+                slice = bidRepository.findHistoryAfter(lotId, Double.valueOf(keys[0]), Long.valueOf(keys[1]), pr);
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException(e);
+            }
         }
 
-        // 11. Retourner le DTO de la nouvelle enchère
+        List<BidDTO> dtos = slice.getContent().stream()
+                .map(BidServiceImpl::toDTO)
+                .collect(Collectors.toList());
+
+        String next = null;
+        if (slice.hasNext() && !dtos.isEmpty()) {
+            BidDTO last = dtos.get(dtos.size() - 1);
+            next = CursorCodec.encode(last.getAmount(), last.getId());
+        }
+        return new CursorPageDTO<>(dtos, next);
+    }
+
+    static BidDTO toDTO(BidView v) {
         return BidDTO.builder()
-                .id(bid.getId())
-                .lotId(lot.getId())
-                .userId(user.getId())
-                .username(user.getUsername())
-                .amount(bid.getAmount())
-                .placedAt(Instant.now())
+                .id(v.id())
+                .lotId(v.lotId())
+                .userId(v.userId())
+                .username(v.username())
+                .amount(v.amount())
+                .placedAt(v.placedAt().atZone(ZoneId.systemDefault()).toInstant())
                 .build();
     }
 }
@@ -4,6 +4,7 @@ import org.example.auctionbackend.dto.CategoryDTO;
 import org.example.auctionbackend.dto.CategoryTreeDTO;
 
 import java.util.List;
+import java.util.Set;
 
 public interface CategoryService {
     List<CategoryDTO> findTopLevel();
@@ -11,4 +12,8 @@ public interface CategoryService {
 
     List<CategoryTreeDTO> getCategoryTree();
 
+    /**
+     * Identifiants de la catégorie et de tous ses descendants, à toute profondeur.
+     */
+    Set<Long> findSelfAndDescendantIds(Long categoryId);
 }
@@ -1,51 +1,82 @@
 package org.example.auctionbackend.service;
 
+import org.example.auctionbackend.cache.CategoryIndex;
 import org.example.auctionbackend.dto.CategoryDTO;
 import org.example.auctionbackend.dto.CategoryTreeDTO;
-import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.event.CategoryChangedEvent;
 import org.example.auctionbackend.repository.CategoryRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
+/**
+ * Les lectures sont servies par un CategoryIndex immuable en mémoire :
+ * aucune requête SQL sur le chemin chaud. L'index est reconstruit (une seule
+ * requête) après chaque écriture sur une catégorie, et périodiquement pour
+ * prendre en compte les modifications faites directement en base.
+ */
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository repo;
 
+    private volatile CategoryIndex index;
+
     public CategoryServiceImpl(CategoryRepository repo) {
         this.repo = repo;
     }
 
     @Override
     public List<CategoryDTO> findTopLevel() {
-        return repo.findByParentIsNull().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return index().topLevel();
     }
 
     @Override
     public List<CategoryTreeDTO> getCategoryTree() {
-        List<Category> parents = repo.findByParentIsNull();
-        return parents.stream().map(parent -> {
-            List<CategoryDTO> children = repo.findByParentId(parent.getId())
-                    .stream()
-                    .map(this::toDTO)
-                    .collect(Collectors.toList());
-            return new CategoryTreeDTO(parent.getId(), parent.getName(), children);
-        }).collect(Collectors.toList());
+        return index().tree();
     }
 
-
     @Override
     public List<CategoryDTO> findSubcategories(Long parentId) {
-        return repo.findByParentId(parentId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return index().children(parentId);
+    }
+
+    @Override
+    public Set<Long> findSelfAndDescendantIds(Long categoryId) {
+        return index().selfAndDescendantIds(categoryId);
+    }
+
+    /**
+     * Reconstruit l'index à partir de la table complète puis le publie d'un bloc.
+     */
+    public synchronized void reload() {
+        index = CategoryIndex.build(repo.findAll());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${auction.categories.refresh-interval-ms:300000}",
+            initialDelayString = "${auction.categories.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        reload();
     }
 
-    private CategoryDTO toDTO(Category c) {
-        return new CategoryDTO(c.getId(), c.getName());
+    private CategoryIndex index() {
+        CategoryIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    reload();
+                }
+                current = index;
+            }
+        }
+        return current;
     }
 }
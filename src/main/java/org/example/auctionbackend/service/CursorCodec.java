@@ -0,0 +1,55 @@
+package org.example.auctionbackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodage des curseurs de pagination keyset : les valeurs de la clé de tri
+ * de la dernière ligne lue, jointes puis encodées en base64 URL-safe.
+ * Le format est volontairement opaque pour les clients.
+ */
+final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidCursorException si le curseur est illisible ou n'a pas le bon nombre de clés
+     */
+    static String[] decode(String cursor, int expectedKeys) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\" + SEPARATOR, -1);
+            if (keys.length != expectedKeys) {
+                throw new InvalidCursorException();
+            }
+            return keys;
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    static long decodeLong(String cursor) {
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.auctionbackend.service;
+
+/**
+ * Curseur de pagination illisible ou altéré : erreur du client (400).
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(Throwable cause) {
+        super("Invalid cursor", cause);
+    }
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.auctionbackend.service;
+
+/**
+ * Enchère refusée parce que le lot est trop sollicité à cet instant (verrou non
+ * obtenu, compare-and-set perdu) : l'enchère elle-même est valide, le client
+ * peut réessayer (503 + Retry-After).
+ */
+public class LotBusyException extends IllegalStateException {
+
+    LotBusyException(BidRejection rejection) {
+        super(rejection.message());
+    }
+}
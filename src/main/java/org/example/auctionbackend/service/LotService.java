@@ -1,8 +1,11 @@
 package org.example.auctionbackend.service;
 
 import org.example.auctionbackend.dto.CreateLotRequestDTO;
+import org.example.auctionbackend.dto.CursorPageDTO;
+import org.example.auctionbackend.dto.FollowedLotDTO;
 import org.example.auctionbackend.dto.LotDTO;
 import org.example.auctionbackend.dto.LotDetailDTO;
+import org.example.auctionbackend.dto.SlicePageDTO;
 import org.example.auctionbackend.dto.UpdateLotRequestDTO;
 import org.springframework.data.domain.Page;
 
@@ -21,6 +24,18 @@ public interface LotService {
      */
     Page<LotDTO> listByCategory(Long categoryId, int page, int size);
 
+    /**
+     * Liste des lots paginée par curseur (keyset sur l'id), éventuellement filtrée
+     * par catégorie. Pas de COUNT ni d'OFFSET : le coût est le même quelle que
+     * soit la profondeur de la page.
+     *
+     * @param categoryId identifiant de la catégorie (null pour toutes)
+     * @param after      curseur opaque renvoyé par la page précédente (null ou vide pour la première page)
+     * @param size       taille de page
+     * @return contenu et curseur de la page suivante
+     */
+    CursorPageDTO<LotDTO> listByCategoryAfter(Long categoryId, String after, int size);
+
     /**
      * Récupère le détail d’un lot par son id.
      *
@@ -38,12 +53,15 @@ public interface LotService {
     List<LotDTO> findLatestLots(int count);
 
     /**
-     * Récupère la liste des lots suivis (enchéris) par un utilisateur.
+     * Récupère une page des lots suivis (enchéris) par un utilisateur,
+     * fin la plus proche d'abord.
      *
      * @param username nom d'utilisateur
-     * @return liste de LotDTO
+     * @param page     numéro de page (0-based)
+     * @param size     taille de page, ramenée à auction.lots.followed.max-page-size
+     * @return page de FollowedLotDTO (avec le drapeau "leading") et indicateur hasNext
      */
-    List<LotDTO> getFollowedLots(String username);
+    SlicePageDTO<FollowedLotDTO> getFollowedLots(String username, int page, int size);
 
     /**
      * Récupère la liste des lots créés par l'utilisateur connecté.
@@ -2,23 +2,38 @@
 
 package org.example.auctionbackend.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.example.auctionbackend.cache.LotDetailCache;
+import org.example.auctionbackend.cache.RecentLotsBuffer;
 import org.example.auctionbackend.dto.CreateLotRequestDTO;
+import org.example.auctionbackend.dto.CursorPageDTO;
+import org.example.auctionbackend.dto.FollowedLotDTO;
 import org.example.auctionbackend.dto.LotDTO;
 import org.example.auctionbackend.dto.LotDetailDTO;
+import org.example.auctionbackend.dto.SlicePageDTO;
 import org.example.auctionbackend.dto.UpdateLotRequestDTO;
+import org.example.auctionbackend.event.LotChangedEvent;
 import org.example.auctionbackend.model.*;
 import org.example.auctionbackend.repository.*;
+import org.example.auctionbackend.repository.projection.BidView;
+import org.example.auctionbackend.repository.projection.FollowedLotView;
+import org.example.auctionbackend.repository.projection.LotDetailView;
+import org.example.auctionbackend.repository.projection.LotSummaryView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -29,68 +44,120 @@ public class LotServiceImpl implements LotService {
 
     private final LotRepository lotRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
     private final UserFollowedLotRepository followedLotRepository;
     private final UserRepository userRepository;
     private final UserTransactionRepository transactionRepository;
     private final BidRepository bidRepository;
+    private final ProxyBidRepository proxyBidRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LotDetailCache lotDetailCache;
+    private final RecentLotsBuffer recentLotsBuffer;
+    private final MeterRegistry meterRegistry;
+
+    /** Nombre d'enchères embarquées dans le détail d'un lot */
+    @Value("${auction.lots.detail.top-bids:5}")
+    private int detailTopBids;
+
+    /** Taille maximale d'une page de GET /lots en mode curseur */
+    @Value("${auction.lots.list.max-page-size:100}")
+    private int listMaxPageSize;
+
+    /** Taille maximale d'une page de GET /user/followed-lots */
+    @Value("${auction.lots.followed.max-page-size:100}")
+    private int followedMaxPageSize;
 
     @Override
+    @Transactional(readOnly = true)
     public Page<LotDTO> listByCategory(Long categoryId, int page, int size) {
         PageRequest pr = PageRequest.of(page, size);
 
-        Page<Lot> lotsPage = (categoryId == null)
-                ? lotRepository.findAll(pr)
-                : lotRepository.findByCategoryIdIn(collectCategoryIds(categoryId), pr);
+        Page<LotSummaryView> lotsPage = (categoryId == null)
+                ? lotRepository.findSummaries(pr)
+                : lotRepository.findSummariesByCategoryIdIn(collectCategoryIds(categoryId), pr);
 
+        LocalDateTime now = LocalDateTime.now();
         List<LotDTO> dtos = lotsPage.getContent().stream()
-                .map(this::toDTO)
+                .map(v -> toDTO(v, now))
                 .collect(Collectors.toList());
 
         return new PageImpl<>(dtos, pr, lotsPage.getTotalElements());
     }
 
-    private List<Long> collectCategoryIds(Long categoryId) {
-        List<Long> ids = categoryRepository.findByParentId(categoryId).stream()
-                .map(Category::getId)
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<LotDTO> listByCategoryAfter(Long categoryId, String after, int size) {
+        long afterId = (after == null || after.isEmpty()) ? 0L : CursorCodec.decodeLong(after);
+        PageRequest pr = PageRequest.of(0, Math.max(1, Math.min(size, listMaxPageSize)));
+
+        Slice<LotSummaryView> slice = (categoryId == null)
+                ? lotRepository.findSummariesAfter(afterId, pr)
+                : lotRepository.findSummariesByCategoryIdInAfter(collectCategoryIds(categoryId), afterId, pr);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LotDTO> dtos = slice.getContent().stream()
+                .map(v -> toDTO(v, now))
                 .collect(Collectors.toList());
-        ids.add(categoryId);
-        return ids;
+
+        String next = (slice.hasNext() && !dtos.isEmpty())
+                ? CursorCodec.encode(dtos.get(dtos.size() - 1).getId())
+                : null;
+        return new CursorPageDTO<>(dtos, next);
+    }
+
+    private Collection<Long> collectCategoryIds(Long categoryId) {
+        return categoryService.findSelfAndDescendantIds(categoryId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<LotDetailDTO> findById(Long id) {
-        return lotRepository.findById(id)
-                .map(lot -> {
-                    refreshLotStatus(lot);
-                    return toDetailDTO(lot);
-                });
+        return lotDetailCache.get(id, this::loadDetail)
+                .map(e -> toDetailDTO(e.lot(), e.topBids(), LocalDateTime.now()));
+    }
+
+    /**
+     * Charge la projection du lot puis ses meilleures enchères via l'index
+     * bids(lot_id, amount DESC, id) ; la collection Lot.bids n'est jamais chargée.
+     */
+    private Optional<LotDetailCache.Entry> loadDetail(Long id) {
+        return lotRepository.findDetailById(id)
+                .map(v -> new LotDetailCache.Entry(v, detailTopBids > 0
+                        ? bidRepository.findHistory(id, PageRequest.of(0, detailTopBids)).getContent()
+                        : List.of()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<LotDTO> findLatestLots(int count) {
-        return lotRepository.findAllByOrderByIdDesc(PageRequest.of(0, count))
-                .stream()
-                .map(this::toDTO)
+        LocalDateTime now = LocalDateTime.now();
+        List<LotSummaryView> latest = recentLotsBuffer.latest(count)
+                .orElseGet(() -> lotRepository.findRecentSummaries(PageRequest.of(0, count)));
+        return latest.stream()
+                .map(v -> toDTO(v, now))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<LotDTO> getFollowedLots(String username) {
-        List<UserFollowedLot> suivis = followedLotRepository
-                .findByUserUsernameOrderByLotEndDateAscLotCurrentPriceDesc(username);
+    public SlicePageDTO<FollowedLotDTO> getFollowedLots(String username, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, followedMaxPageSize));
+        Slice<FollowedLotView> slice = followedLotRepository.findFollowedLots(username, PageRequest.of(page, pageSize));
 
-        return suivis.stream()
-                .map(ufl -> toDTO(ufl.getLot()))
+        LocalDateTime now = LocalDateTime.now();
+        List<FollowedLotDTO> dtos = slice.getContent().stream()
+                .map(v -> toFollowedDTO(v, now))
                 .collect(Collectors.toList());
+        return new SlicePageDTO<>(dtos, page, pageSize, slice.hasNext());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<LotDTO> getUserLots(String username) {
-        return lotRepository.findByOwnerUsername(username)
+        LocalDateTime now = LocalDateTime.now();
+        return lotRepository.findSummariesByOwnerUsername(username)
                 .stream()
-                .map(this::toDTO)
+                .map(v -> toDTO(v, now))
                 .collect(Collectors.toList());
     }
 
@@ -120,6 +187,7 @@ public class LotServiceImpl implements LotService {
                 .build();
 
         Lot saved = lotRepository.save(lot);
+        eventPublisher.publishEvent(LotChangedEvent.of(LotChangedEvent.Type.CREATED, saved));
         return toDTO(saved);
     }
 
@@ -134,33 +202,37 @@ public class LotServiceImpl implements LotService {
             throw new IllegalStateException("Not the owner of this lot");
         }
 
-        // Mettre à jour le statut en fonction de la date courante
-        refreshLotStatus(lot);
-        if (lot.getStatus() != LotStatus.IN_PROGRESS) {
+        // Statut calculé en fonction de la date courante
+        if (computeStatus(lot) != LotStatus.IN_PROGRESS) {
             throw new IllegalStateException("Cannot cancel a lot that is not in progress");
         }
 
         // 1. Rembourser l’ancien leader (s'il existe)
+        //    (son plafond s'il menait par une enchère maximale, sinon le prix courant)
         User prev = lot.getCurrentLeader();
         if (prev != null) {
-            double prevAmt = lot.getCurrentPrice();
-            prev.setBalance(prev.getBalance() + prevAmt);
+            double prevAmt = proxyBidRepository.findActive(lotId, prev.getId())
+                    .map(ProxyBid::getMaxAmount)
+                    .orElse(lot.getCurrentPrice());
+            // crédit atomique : ne peut pas écraser un débit concurrent
+            userRepository.creditBalance(prev.getId(), prevAmt);
             transactionRepository.save(UserTransaction.builder()
                     .user(prev)
                     .amount(prevAmt)
                     .type(TransactionType.BID_REFUND)
                     .build());
-            userRepository.save(prev);
         }
 
         // 2. Supprimer toutes les enchères associées à ce lot
         bidRepository.deleteAllByLotId(lotId);
 
-        // 3. Supprimer tous les suivis (user_followed_lots) pour ce lot
+        // 3. Supprimer tous les suivis (user_followed_lots) et enchères maximales pour ce lot
         followedLotRepository.deleteByLotId(lotId);
+        proxyBidRepository.deleteAllByLotId(lotId);
 
         // 4. Enfin, supprimer le lot lui‐même
         lotRepository.delete(lot);
+        eventPublisher.publishEvent(LotChangedEvent.of(LotChangedEvent.Type.DELETED, lot));
     }
 
     @Override
@@ -173,8 +245,8 @@ public class LotServiceImpl implements LotService {
             throw new IllegalStateException("Not the owner of this lot");
         }
 
-        refreshLotStatus(lot);
-        if (!(lot.getStatus() == LotStatus.UNSOLD || lot.getStatus() == LotStatus.PENDING)) {
+        LotStatus status = computeStatus(lot);
+        if (!(status == LotStatus.UNSOLD || status == LotStatus.PENDING)) {
             throw new IllegalStateException("Only UNSOLD or PENDING lots can be updated");
         }
 
@@ -192,6 +264,7 @@ public class LotServiceImpl implements LotService {
         lot.setCurrentLeader(null);
 
         Lot updated = lotRepository.save(lot);
+        eventPublisher.publishEvent(LotChangedEvent.of(LotChangedEvent.Type.UPDATED, updated));
         return toDTO(updated);
     }
 
@@ -205,8 +278,7 @@ public class LotServiceImpl implements LotService {
             throw new IllegalStateException("Not the owner of this lot");
         }
 
-        refreshLotStatus(lot);
-        if (lot.getStatus() != LotStatus.UNSOLD) {
+        if (computeStatus(lot) != LotStatus.UNSOLD) {
             throw new IllegalStateException("Only UNSOLD lots can be relisted");
         }
 
@@ -224,29 +296,47 @@ public class LotServiceImpl implements LotService {
         lot.setCurrentLeader(null);
 
         Lot relisted = lotRepository.save(lot);
+        eventPublisher.publishEvent(LotChangedEvent.of(LotChangedEvent.Type.UPDATED, relisted));
         return toDTO(relisted);
     }
 
     /**
-     * Met à jour le statut du lot en fonction de la date courante.
+     * Calcule le statut d'un lot à l'instant {@code now} à partir de ses dates et
+     * de la présence d'un meilleur enchérisseur, sans rien persister.
+     */
+    public static LotStatus computeStatus(LocalDateTime startDate,
+                                          LocalDateTime endDate,
+                                          boolean hasLeader,
+                                          LocalDateTime now) {
+        if (now.isBefore(startDate)) {
+            return LotStatus.PENDING;
+        }
+        if (now.isAfter(endDate)) {
+            return hasLeader ? LotStatus.SOLD : LotStatus.UNSOLD;
+        }
+        return LotStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Statut courant du lot (lecture seule, aucune écriture).
+     */
+    public LotStatus computeStatus(Lot lot) {
+        return computeStatus(lot.getStartDate(), lot.getEndDate(),
+                lot.getCurrentLeader() != null, LocalDateTime.now());
+    }
+
+    /**
+     * Met à jour le statut persisté du lot en fonction de la date courante.
      * Si le statut passe de IN_PROGRESS → SOLD, on crédite le compte du vendeur et
      * on crée une transaction SALE_PROCEEDS.
+     *
+     * Réservé aux traitements de fond (LotStatusScheduler) : les lectures se contentent
+     * de computeStatus(...) et n'écrivent jamais.
      */
     @Transactional
     public void refreshLotStatus(Lot lot) {
-        LocalDateTime now = LocalDateTime.now();
-
         LotStatus oldStatus = lot.getStatus();
-        LotStatus computed;
-        if (now.isBefore(lot.getStartDate())) {
-            computed = LotStatus.PENDING;
-        } else if (now.isAfter(lot.getEndDate())) {
-            computed = (lot.getCurrentLeader() != null)
-                    ? LotStatus.SOLD
-                    : LotStatus.UNSOLD;
-        } else {
-            computed = LotStatus.IN_PROGRESS;
-        }
+        LotStatus computed = computeStatus(lot);
 
         // Si on passe de IN_PROGRESS (ou PENDING) vers SOLD :
         if (oldStatus != LotStatus.SOLD && computed == LotStatus.SOLD) {
@@ -255,7 +345,7 @@ public class LotServiceImpl implements LotService {
             double saleAmount = (lot.getCurrentPrice() != null)
                     ? lot.getCurrentPrice()
                     : lot.getInitialPrice();
-            seller.setBalance(seller.getBalance() + saleAmount);
+            userRepository.creditBalance(seller.getId(), saleAmount);
 
             // 2) enregistrer une transaction de type SALE_PROCEEDS
             transactionRepository.save(
@@ -266,21 +356,39 @@ public class LotServiceImpl implements LotService {
                             .build()
             );
 
-            userRepository.save(seller);
+            // 3) le gagnant par enchère maximale avait réservé son plafond :
+            //    on lui rend la différence avec le prix de vente
+            User winner = lot.getCurrentLeader();
+            proxyBidRepository.findActive(lot.getId(), winner.getId()).ifPresent(proxy -> {
+                double unused = proxy.getMaxAmount() - saleAmount;
+                if (unused > 0) {
+                    userRepository.creditBalance(winner.getId(), unused);
+                    transactionRepository.save(UserTransaction.builder()
+                            .user(winner)
+                            .amount(unused)
+                            .type(TransactionType.BID_REFUND)
+                            .build());
+                }
+                proxy.setActive(false);
+            });
         }
 
         // Mettre à jour le statut s’il a changé
         if (lot.getStatus() != computed) {
+            Counter.builder("auction.lots.status.transitions")
+                    .description("Changements de statut persistés (moteur de clôture, balayage)")
+                    .tags("from", String.valueOf(oldStatus), "to", computed.name())
+                    .register(meterRegistry)
+                    .increment();
             lot.setStatus(computed);
             lotRepository.save(lot);
+            eventPublisher.publishEvent(LotChangedEvent.of(LotChangedEvent.Type.STATUS_CHANGED, lot));
         }
     }
 
     // === Mapping en LotDTO ===
 
     private LotDTO toDTO(Lot lot) {
-        refreshLotStatus(lot);
-
         double current = (lot.getCurrentPrice() != null)
                 ? lot.getCurrentPrice()
                 : lot.getInitialPrice();
@@ -292,35 +400,65 @@ public class LotServiceImpl implements LotService {
                 lot.getCategory().getId(),
                 lot.getInitialPrice(),
                 current,
-                lot.getStatus().name()
+                computeStatus(lot).name()
         );
     }
 
-    private LotDetailDTO toDetailDTO(Lot lot) {
-        double current = (lot.getCurrentPrice() != null)
-                ? lot.getCurrentPrice()
-                : lot.getInitialPrice();
+    // === Mapping des projections (lectures, aucune entité chargée) ===
+    // (statiques et visibles dans le package pour les benchmarks JMH)
 
-        String leader = (lot.getCurrentLeader() != null)
-                ? lot.getCurrentLeader().getUsername()
-                : null;
-        String ownerUsername = (lot.getOwner() != null)
-                ? lot.getOwner().getUsername()
-                : null;
+    static LotDTO toDTO(LotSummaryView v, LocalDateTime now) {
+        double current = (v.currentPrice() != null)
+                ? v.currentPrice()
+                : v.initialPrice();
+
+        return new LotDTO(
+                v.id(),
+                v.title(),
+                v.description(),
+                v.categoryId(),
+                v.initialPrice(),
+                current,
+                computeStatus(v.startDate(), v.endDate(), v.currentLeaderId() != null, now).name()
+        );
+    }
+
+    private FollowedLotDTO toFollowedDTO(FollowedLotView v, LocalDateTime now) {
+        double current = (v.currentPrice() != null)
+                ? v.currentPrice()
+                : v.initialPrice();
+
+        return new FollowedLotDTO(
+                v.id(),
+                v.title(),
+                v.description(),
+                v.categoryId(),
+                v.initialPrice(),
+                current,
+                computeStatus(v.startDate(), v.endDate(), v.currentLeaderId() != null, now).name(),
+                v.endDate(),
+                Boolean.TRUE.equals(v.leading())
+        );
+    }
+
+    static LotDetailDTO toDetailDTO(LotDetailView v, List<BidView> topBids, LocalDateTime now) {
+        double current = (v.currentPrice() != null)
+                ? v.currentPrice()
+                : v.initialPrice();
 
         return new LotDetailDTO(
-                lot.getId(),
-                lot.getTitle(),
-                lot.getDescription(),
-                lot.getCategory().getId(),
-                lot.getInitialPrice(),
+                v.id(),
+                v.title(),
+                v.description(),
+                v.categoryId(),
+                v.initialPrice(),
                 current,
-                lot.getStatus().name(),
-                lot.getStartDate(),
-                lot.getEndDate(),
-                Collections.emptyList(),
-                leader,
-                ownerUsername
+                computeStatus(v.startDate(), v.endDate(), v.currentLeaderUsername() != null, now).name(),
+                v.startDate(),
+                v.endDate(),
+                topBids.stream().map(BidServiceImpl::toDTO).collect(Collectors.toList()),
+                v.currentLeaderUsername(),
+                v.ownerUsername()
         );
     }
 }
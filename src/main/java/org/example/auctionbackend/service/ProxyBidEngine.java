@@ -0,0 +1,248 @@
+package org.example.auctionbackend.service;
+
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.repository.ProxyBidRepository;
+import org.example.auctionbackend.repository.projection.LotBidStateView;
+import org.example.auctionbackend.repository.projection.ProxyCeilingView;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Moteur d'enchères maximales (proxy), évalué en mémoire.
+ *
+ * Pour chaque lot en cours, les plafonds actifs sont tenus dans un ensemble
+ * trié (plafond décroissant, puis ancienneté). Quand une enchère arrive,
+ * resolve(...) détermine en une seule passe le gagnant et le prix résultant :
+ * le plafond le plus haut l'emporte au prix du second plafond (ou de
+ * l'enchère manuelle) plus l'incrément, sans dépasser son propre plafond.
+ * Seul le résultat est écrit en base et diffusé, pas les surenchères
+ * intermédiaires.
+ *
+ * Les plafonds dépassés sont retirés : après chaque résolution, seul celui du
+ * meilleur enchérisseur reste actif. Toutes les opérations sur un lot passent
+ * par BidSequencer ; l'ensemble d'un lot est remplacé après le commit et
+ * jamais modifié en place.
+ *
+ * Les plafonds sont chargés avant le démarrage du serveur web : une enchère
+ * résolue contre un carnet vide battrait un plafond existant et rembourserait
+ * le leader du seul prix courant au lieu de son plafond réservé.
+ */
+@Component
+public class ProxyBidEngine implements SmartInitializingSingleton {
+
+    /** Plafond décroissant, puis le plus ancien d'abord (il gagne les égalités) */
+    private static final Comparator<Ceiling> ORDER = Comparator
+            .comparingDouble(Ceiling::maxAmount).reversed()
+            .thenComparingLong(Ceiling::seq);
+
+    private final ProxyBidRepository proxyBidRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double increment;
+
+    private final ConcurrentMap<Long, NavigableSet<Ceiling>> books = new ConcurrentHashMap<>();
+
+    public ProxyBidEngine(ProxyBidRepository proxyBidRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${auction.bids.proxy-increment:1.0}") double increment) {
+        this.proxyBidRepository = proxyBidRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.increment = increment;
+    }
+
+    /**
+     * Au démarrage, recharge les plafonds actifs depuis la base, une fois les
+     * singletons créés et avant que le serveur web n'accepte des requêtes.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    void load() {
+        List<ProxyCeilingView> active = transactionTemplate.execute(status ->
+                proxyBidRepository.findAllActiveCeilings());
+        if (active == null) {
+            return;
+        }
+        ConcurrentMap<Long, NavigableSet<Ceiling>> loaded = new ConcurrentHashMap<>();
+        for (ProxyCeilingView v : active) {
+            loaded.computeIfAbsent(v.lotId(), id -> new TreeSet<>(ORDER))
+                    .add(new Ceiling(v.userId(), v.maxAmount(), v.id()));
+        }
+        loaded.forEach((lotId, book) -> books.put(lotId, Collections.unmodifiableNavigableSet(book)));
+    }
+
+    /**
+     * Plafond actif de l'utilisateur sur le lot, s'il en a un.
+     */
+    public Optional<Ceiling> ceilingOf(Long lotId, Long userId) {
+        NavigableSet<Ceiling> book = books.get(lotId);
+        if (book == null || userId == null) {
+            return Optional.empty();
+        }
+        return book.stream().filter(c -> c.userId().equals(userId)).findFirst();
+    }
+
+    /**
+     * Résout une nouvelle enchère (manuelle ou maximale) contre les plafonds
+     * actifs du lot, sans rien modifier.
+     *
+     * @param state      état du lot lu en base
+     * @param challenger id de l'enchérisseur (qui n'est pas le meilleur enchérisseur actuel)
+     * @param amount     montant de l'enchère manuelle, ou plafond de l'enchère maximale
+     * @param proxy      true pour une enchère maximale
+     */
+    public Resolution resolve(LotBidStateView state, Long challenger, double amount, boolean proxy) {
+        double current = state.priceToBeat();
+        Long leaderId = state.currentLeaderId();
+
+        NavigableSet<Ceiling> candidates = new TreeSet<>(ORDER);
+        NavigableSet<Ceiling> book = books.get(state.id());
+        if (book != null) {
+            candidates.addAll(book);
+        }
+        // réservation actuelle du leader : son plafond s'il a une enchère maximale, sinon le prix
+        Double leaderReservation = null;
+        if (leaderId != null) {
+            leaderReservation = ceilingOf(state.id(), leaderId).map(Ceiling::maxAmount).orElse(current);
+        }
+
+        Ceiling challengerCeiling = proxy ? new Ceiling(challenger, amount, Long.MAX_VALUE) : null;
+        if (challengerCeiling != null) {
+            candidates.add(challengerCeiling);
+        }
+        Ceiling top = candidates.isEmpty() ? null : candidates.first();
+        List<BidRecord> bids = new ArrayList<>();
+
+        if (!proxy) {
+            if (top != null && top.maxAmount() >= amount) {
+                // le plafond du leader couvre l'enchère : défense automatique
+                double price = Math.min(amount + increment, top.maxAmount());
+                bids.add(new BidRecord(top.userId(), price));
+                bids.add(new BidRecord(challenger, amount));
+                return new Resolution(top.userId(), price, top, leaderReservation,
+                        othersThan(candidates, top, challenger), bids, false);
+            }
+            // l'enchère manuelle dépasse tous les plafonds
+            if (top != null && top.maxAmount() > current) {
+                bids.add(new BidRecord(top.userId(), top.maxAmount()));
+            }
+            bids.add(new BidRecord(challenger, amount));
+            return new Resolution(challenger, amount, null, leaderReservation,
+                    othersThan(candidates, null, challenger), bids, true);
+        }
+
+        // enchère maximale : le plus haut plafond l'emporte au prix du second + incrément
+        Ceiling second = candidates.higher(top);
+        double runnerUp = (second != null) ? second.maxAmount() : current;
+        double price = Math.min(runnerUp + increment, top.maxAmount());
+        boolean challengerWon = (top == challengerCeiling);
+        if (challengerWon) {
+            bids.add(new BidRecord(challenger, price));
+            if (second != null && second.maxAmount() > current) {
+                bids.add(new BidRecord(second.userId(), second.maxAmount()));
+            }
+        } else {
+            bids.add(new BidRecord(top.userId(), price));
+            bids.add(new BidRecord(challenger, amount));
+        }
+        return new Resolution(top.userId(), price, challengerWon ? null : top, leaderReservation,
+                othersThan(candidates, top, challenger), bids, challengerWon);
+    }
+
+    /**
+     * Remplace, après le commit de la transaction courante, l'ensemble des plafonds
+     * actifs du lot par {@code top} (null : plus aucun plafond actif).
+     */
+    public void replaceAfterCommit(Long lotId, Ceiling top) {
+        Runnable apply = () -> {
+            if (top == null) {
+                books.remove(lotId);
+            } else {
+                NavigableSet<Ceiling> book = new TreeSet<>(ORDER);
+                book.add(top);
+                books.put(lotId, Collections.unmodifiableNavigableSet(book));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Un lot terminé ou supprimé n'a plus de plafonds actifs
+     * (les réservations sont soldées par LotServiceImpl).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotChanged(LotChangedEvent event) {
+        if (event.getType() == LotChangedEvent.Type.DELETED
+                || event.getStatus() == LotStatus.SOLD
+                || event.getStatus() == LotStatus.UNSOLD) {
+            books.remove(event.getLotId());
+        }
+    }
+
+    private static List<Long> othersThan(NavigableSet<Ceiling> candidates, Ceiling keep, Long challenger) {
+        List<Long> ids = new ArrayList<>();
+        for (Ceiling c : candidates) {
+            if (c != keep && !c.userId().equals(challenger)) {
+                ids.add(c.userId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Plafond actif d'un utilisateur ; seq (id de l'enchère maximale) départage les égalités.
+     */
+    public record Ceiling(Long userId, double maxAmount, long seq) {
+    }
+
+    /** Enchère à inscrire dans l'historique (bids) */
+    public record BidRecord(Long userId, double amount) {
+    }
+
+    /**
+     * Résultat d'une résolution.
+     *
+     * @param winnerId                  meilleur enchérisseur après résolution
+     * @param price                     nouveau prix courant du lot
+     * @param defenderCeiling           plafond du leader qui a défendu sa place (null sinon)
+     * @param previousLeaderReservation montant réservé par le leader précédent (null si aucun)
+     * @param exhaustedUserIds          utilisateurs dont l'enchère maximale est dépassée
+     * @param bids                      enchères à inscrire (à montant égal, celle du gagnant en premier)
+     * @param challengerWon             true si le nouvel enchérisseur prend la tête
+     */
+    public record Resolution(Long winnerId,
+                             double price,
+                             Ceiling defenderCeiling,
+                             Double previousLeaderReservation,
+                             List<Long> exhaustedUserIds,
+                             List<BidRecord> bids,
+                             boolean challengerWon) {
+    }
+}
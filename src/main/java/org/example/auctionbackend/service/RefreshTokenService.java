@@ -0,0 +1,45 @@
+package org.example.auctionbackend.service;
+
+import java.util.Optional;
+
+/**
+ * Sessions de rafraîchissement (familles de refresh tokens) : rotation avec
+ * détection de rejeu, et révocation.
+ */
+public interface RefreshTokenService {
+
+    /**
+     * Ouvre une session au login.
+     * @return id de la famille et jti du premier refresh token
+     */
+    Session open(String username);
+
+    /**
+     * Remplace le refresh token {@code jti} de la famille par un nouveau.
+     * Un jeton qui n'est plus le jeton courant (rejeu) révoque toute la famille.
+     * @return la nouvelle session, ou vide si le jeton est refusé
+     */
+    Optional<Session> rotate(String familyId, String jti);
+
+    /**
+     * Déconnexion d'une session : son refresh token et ses jetons d'accès sont refusés.
+     */
+    void revoke(String familyId);
+
+    /**
+     * Déconnexion de toutes les sessions de l'utilisateur, en une seule écriture.
+     */
+    void revokeAll(String username);
+
+    /**
+     * true si la session a été révoquée (sans accès à la base dans le cas courant).
+     */
+    boolean isRevoked(String familyId);
+
+    /**
+     * @param familyId id de la famille, porté par les jetons (claim sid)
+     * @param jti      id du refresh token courant
+     */
+    record Session(String familyId, String jti) {
+    }
+}
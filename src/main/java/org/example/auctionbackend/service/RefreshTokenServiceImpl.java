@@ -0,0 +1,89 @@
+package org.example.auctionbackend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.auctionbackend.cache.RevokedSessionIndex;
+import org.example.auctionbackend.cache.UserStateCache;
+import org.example.auctionbackend.model.RefreshTokenFamily;
+import org.example.auctionbackend.repository.RefreshTokenFamilyRepository;
+import org.example.auctionbackend.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final UserRepository userRepository;
+    private final RevokedSessionIndex revokedSessions;
+    private final UserStateCache userStateCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RefreshTokenServiceImpl(RefreshTokenFamilyRepository familyRepository,
+                                   UserRepository userRepository,
+                                   RevokedSessionIndex revokedSessions,
+                                   UserStateCache userStateCache) {
+        this.familyRepository = familyRepository;
+        this.userRepository = userRepository;
+        this.revokedSessions = revokedSessions;
+        this.userStateCache = userStateCache;
+    }
+
+    @Override
+    @Transactional
+    public Session open(String username) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshTokenFamily family = RefreshTokenFamily.builder()
+                .id(UUID.randomUUID().toString())
+                .username(username)
+                .currentJti(UUID.randomUUID().toString())
+                .createdAt(now)
+                .rotatedAt(now)
+                .build();
+        // persist (et non save) : l'id est fourni, save ferait un SELECT
+        entityManager.persist(family);
+        return new Session(family.getId(), family.getCurrentJti());
+    }
+
+    /**
+     * Rotation en une requête conditionnelle : deux rafraîchissements concurrents
+     * avec le même jeton ne peuvent pas réussir tous les deux.
+     */
+    @Override
+    @Transactional
+    public Optional<Session> rotate(String familyId, String jti) {
+        String next = UUID.randomUUID().toString();
+        if (familyRepository.rotate(familyId, jti, next, LocalDateTime.now()) == 1) {
+            return Optional.of(new Session(familyId, next));
+        }
+        // jeton déjà utilisé : la famille est compromise (ou déjà révoquée / expirée)
+        revoke(familyId);
+        return Optional.empty();
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String familyId) {
+        if (familyRepository.revoke(familyId) == 1) {
+            revokedSessions.addAfterCommit(familyId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(String username) {
+        userRepository.revokeSessions(username, LocalDateTime.now());
+        userStateCache.invalidateAfterCommit(username);
+    }
+
+    @Override
+    public boolean isRevoked(String familyId) {
+        return revokedSessions.isRevoked(familyId);
+    }
+}
@@ -5,7 +5,17 @@ public interface UserService {
      * Créditer le compte de l'utilisateur.
      * @param username identifiant
      * @param amount montant à ajouter (>=100)
+     * @param idempotencyKey clé Idempotency-Key de la requête (null si absente) ;
+     *                       un top-up déjà enregistré avec cette clé n'est pas recrédité
      * @return nouveau solde
      */
-    Double topUp(String username, Double amount);
+    Double topUp(String username, Double amount, String idempotencyKey);
+
+    /**
+     * Remplacer le mot de passe (déjà haché) et révoquer les jetons émis avant.
+     * @param username identifiant
+     * @param encodedPassword nouveau mot de passe haché
+     * @return false si l'utilisateur n'existe pas
+     */
+    boolean changePassword(String username, String encodedPassword);
 }
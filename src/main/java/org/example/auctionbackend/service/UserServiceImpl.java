@@ -6,9 +6,13 @@ import org.example.auctionbackend.model.User;
 import org.example.auctionbackend.model.UserTransaction;
 import org.example.auctionbackend.repository.UserRepository;
 import org.example.auctionbackend.repository.UserTransactionRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 
@@ -17,11 +21,14 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepo;
     private final UserTransactionRepository txRepo;
+    private final TransactionTemplate transactionTemplate;
 
     public UserServiceImpl(UserRepository userRepo,
-                           UserTransactionRepository txRepo) {
+                           UserTransactionRepository txRepo,
+                           PlatformTransactionManager transactionManager) {
         this.userRepo = userRepo;
         this.txRepo   = txRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -30,36 +37,68 @@ public class UserServiceImpl implements UserService {
      *
      * @param username nom d'utilisateur
      * @param amount   montant à créditer
+     * @param idempotencyKey clé de la requête d'origine, persistée avec la transaction
      * @return nouveau solde
      * @throws IllegalArgumentException    si le montant n'est pas < 100
      * @throws UsernameNotFoundException   si l'utilisateur n'existe pas
+     *
+     * La transaction est ouverte ici (TransactionTemplate) : si la même clé est
+     * créditée en parallèle par une autre instance, la contrainte
+     * uk_user_transactions_idempotency fait échouer le commit ; après le
+     * rollback, la requête est traitée comme un rejeu.
      */
     @Override
-    @Transactional
-    public Double topUp(String username, Double amount) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Double topUp(String username, Double amount, String idempotencyKey) {
         // Validation métier
         if (amount == null || amount < 100) {
             throw new IllegalArgumentException("The amount must be ≥ 100 CHF");
         }
 
+        try {
+            return transactionTemplate.execute(status -> credit(username, amount, idempotencyKey));
+        } catch (DataIntegrityViolationException ex) {
+            Long userId = (idempotencyKey == null) ? null : userRepo.findByUsername(username)
+                    .filter(u -> txRepo.existsByUserIdAndIdempotencyKey(u.getId(), idempotencyKey))
+                    .map(User::getId)
+                    .orElse(null);
+            if (userId == null) {
+                throw ex;
+            }
+            return userRepo.findBalanceById(userId);
+        }
+    }
+
+    private Double credit(String username, Double amount, String idempotencyKey) {
         // Récupération de l'utilisateur
         User user = userRepo.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // Mise à jour du solde
-        double newBalance = user.getBalance() + amount;
-        user.setBalance(newBalance);
-        userRepo.save(user);
+        // Rejeu d'un top-up déjà crédité (clé persistée, absente du cache en mémoire)
+        if (idempotencyKey != null && txRepo.existsByUserIdAndIdempotencyKey(user.getId(), idempotencyKey)) {
+            return userRepo.findBalanceById(user.getId());
+        }
+
+        // Crédit atomique : pas de lecture-modification-écriture de l'entité,
+        // qui entrerait en conflit de version avec une enchère concurrente
+        userRepo.creditBalance(user.getId(), amount);
 
         // Historisation de la transaction
         UserTransaction tx = UserTransaction.builder()
                 .user(user)
                 .amount(amount)
                 .type(TransactionType.TOP_UP)
+                .idempotencyKey(idempotencyKey)
                 .timestamp(LocalDateTime.now())
                 .build();
         txRepo.save(tx);
 
-        return newBalance;
+        return userRepo.findBalanceById(user.getId());
+    }
+
+    @Override
+    @Transactional
+    public boolean changePassword(String username, String encodedPassword) {
+        return userRepo.updatePassword(username, encodedPassword, LocalDateTime.now()) > 0;
     }
 }
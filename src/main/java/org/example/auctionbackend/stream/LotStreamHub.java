@@ -0,0 +1,374 @@
+package org.example.auctionbackend.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.auctionbackend.dto.LotUpdateDTO;
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.service.LotServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Diffusion en direct (SSE) de l'état des lots : prix courant, meilleur
+ * enchérisseur, statut.
+ *
+ * Publication : après le commit d'une enchère ou d'une transition de statut
+ * (LotChangedEvent), le thread émetteur ne fait que déposer le dernier état
+ * du lot et planifier un envoi ; il ne touche jamais aux connexions.
+ *
+ * Coalescence : tant qu'un envoi est en attente pour un lot, les mises à jour
+ * suivantes écrasent l'état déposé ; une rafale d'enchères part en un seul
+ * message portant le dernier prix.
+ *
+ * Abonnés lents : chaque abonné a un tampon borné ; s'il déborde, l'abonné
+ * est déconnecté (le client se reconnecte et reçoit l'état courant).
+ * Un abonné inactif ne coûte qu'un SseEmitter (requête asynchrone, aucun thread).
+ *
+ * Écritures bloquées : send(...) bloque tant que le socket du client est plein.
+ * Une écriture qui dépasse auction.stream.write-timeout est déclarée bloquée :
+ * l'abonné est retiré et le pool reçoit un thread de remplacement, rendu dès
+ * que l'écriture se termine (au plus tard au délai d'écriture du conteneur).
+ * Seul le thread d'écriture d'un abonné touche à son SseEmitter (send et
+ * complete sont synchronisés sur l'émetteur) : personne d'autre ne peut rester
+ * bloqué derrière un client lent.
+ *
+ * Le ping et la détection des écritures bloquées tournent sur un timer propre
+ * au hub, et non sur le thread unique de @Scheduled : une longue vidange de
+ * l'outbox ou un long balayage des statuts ne retarde pas la détection.
+ */
+@Slf4j
+@Component
+public class LotStreamHub {
+
+    private static final String EVENT_NAME = "lot";
+
+    private final ConcurrentMap<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Abonnés dont un send(...) est en cours, surveillés par detectStalledWrites() */
+    private final Set<Subscriber> writing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger stalledWriters = new AtomicInteger();
+
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService timer;
+    private final int threads;
+    private final int maxStalledWriters;
+    private final long writeTimeoutNanos;
+    private final long emitterTimeoutMillis;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Counter slowDisconnects;
+    private final Counter stalledDisconnects;
+
+    public LotStreamHub(MeterRegistry meterRegistry,
+                        @Value("${auction.stream.threads:4}") int threads,
+                        @Value("${auction.stream.timeout:30m}") Duration timeout,
+                        @Value("${auction.stream.subscriber-buffer:16}") int bufferSize,
+                        @Value("${auction.stream.max-subscribers:50000}") int maxSubscribers,
+                        @Value("${auction.stream.write-timeout:5s}") Duration writeTimeout,
+                        @Value("${auction.stream.max-stalled-writers:64}") int maxStalledWriters,
+                        @Value("${auction.stream.heartbeat-ms:20000}") long heartbeatMs,
+                        @Value("${auction.stream.write-check-ms:1000}") long writeCheckMs) {
+        this.dispatcher = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "lot-stream");
+            t.setDaemon(true);
+            return t;
+        });
+        this.threads = threads;
+        this.maxStalledWriters = maxStalledWriters;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.emitterTimeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+
+        Gauge.builder("auction.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Nombre d'abonnés SSE connectés")
+                .register(meterRegistry);
+        this.slowDisconnects = Counter.builder("auction.stream.slow.disconnects")
+                .description("Abonnés déconnectés car leur tampon a débordé")
+                .register(meterRegistry);
+        this.stalledDisconnects = Counter.builder("auction.stream.stalled.disconnects")
+                .description("Abonnés déconnectés car une écriture est restée bloquée")
+                .register(meterRegistry);
+        Gauge.builder("auction.stream.stalled.writers", stalledWriters, AtomicInteger::get)
+                .description("Écritures SSE bloquées compensées par un thread supplémentaire")
+                .register(meterRegistry);
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lot-stream-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(guarded(this::heartbeat), heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(guarded(this::detectStalledWrites), writeCheckMs, writeCheckMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        dispatcher.shutdownNow();
+        topics.values().forEach(topic -> topic.subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * Abonne un client au lot et lui envoie immédiatement l'état courant.
+     */
+    public SseEmitter subscribe(Long lotId, LotUpdateDTO snapshot) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            // RejectedExecutionException : 503 + Retry-After (GlobalExceptionHandler)
+            throw new RejectedExecutionException("Too many live subscribers, please retry later");
+        }
+        SseEmitter emitter = newEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(lotId, emitter, bufferSize);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+
+        // compute(...) : atomique vis-à-vis de la suppression du topic dans unsubscribe(...)
+        topics.compute(lotId, (id, topic) -> {
+            Topic t = (topic != null) ? topic : new Topic();
+            t.subscribers.add(subscriber);
+            return t;
+        });
+        deliver(subscriber, snapshot);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLotChanged(LotChangedEvent event) {
+        LotChangedEvent.Type type = event.getType();
+        if (type != LotChangedEvent.Type.BID_PLACED && type != LotChangedEvent.Type.STATUS_CHANGED) {
+            return;
+        }
+        LotStatus status = (type == LotChangedEvent.Type.STATUS_CHANGED)
+                ? event.getStatus()
+                : LotServiceImpl.computeStatus(event.getStartDate(), event.getEndDate(),
+                        event.getCurrentLeaderUsername() != null, LocalDateTime.now());
+        publish(event.getLotId(), new LotUpdateDTO(
+                event.getLotId(),
+                event.getCurrentPrice(),
+                event.getCurrentLeaderUsername(),
+                status.name(),
+                event.getEndDate()));
+    }
+
+    /**
+     * Dépose le dernier état du lot et planifie sa diffusion ; ne bloque jamais.
+     */
+    public void publish(Long lotId, LotUpdateDTO update) {
+        Topic topic = topics.get(lotId);
+        if (topic == null) {
+            return;
+        }
+        topic.latest.set(update);
+        if (topic.flushScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> flush(topic));
+        }
+    }
+
+    /**
+     * Ping périodique : garde les connexions ouvertes à travers les proxys
+     * et détecte les clients partis.
+     */
+    void heartbeat() {
+        topics.values().forEach(topic -> topic.subscribers.forEach(s -> deliver(s, Subscriber.HEARTBEAT)));
+    }
+
+    /**
+     * Repère les écritures bloquées depuis plus de auction.stream.write-timeout :
+     * l'abonné est retiré et un thread remplace celui qui reste bloqué, pour
+     * que les autres abonnés continuent d'être servis.
+     */
+    void detectStalledWrites() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : writing) {
+            long startedAt = subscriber.writeStartedAt;
+            if (startedAt == 0 || now - startedAt < writeTimeoutNanos || subscriber.stalled.get()) {
+                continue;
+            }
+            if (!subscriber.closed.get()) {
+                stalledDisconnects.increment();
+                unsubscribe(subscriber);
+            }
+            // au-delà du plafond, l'abonné est retiré mais son thread n'est pas remplacé
+            if (stalledWriters.get() >= maxStalledWriters || !subscriber.stalled.compareAndSet(false, true)) {
+                continue;
+            }
+            resizeDispatcher(stalledWriters.incrementAndGet());
+            // l'écriture a pu se terminer entre la lecture de writeStartedAt et le marquage
+            if (subscriber.writeStartedAt == 0 && subscriber.stalled.compareAndSet(true, false)) {
+                resizeDispatcher(stalledWriters.decrementAndGet());
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /** Point d'extension des tests : émetteur dont on observe les envois */
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /** Une exception annulerait les exécutions suivantes du timer */
+    private static Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                log.warn("Lot stream timer task failed", ex);
+            }
+        };
+    }
+
+    private void flush(Topic topic) {
+        topic.flushScheduled.set(false);
+        LotUpdateDTO update = topic.latest.getAndSet(null);
+        if (update != null) {
+            topic.subscribers.forEach(s -> deliver(s, update));
+        }
+    }
+
+    private void deliver(Subscriber subscriber, Object message) {
+        if (!subscriber.buffer.offer(message)) {
+            slowDisconnects.increment();
+            // complete() attendrait la fin d'un send(...) en cours : c'est le
+            // thread d'écriture de l'abonné qui fermera l'émetteur
+            unsubscribe(subscriber);
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Object message;
+            while ((message = subscriber.buffer.poll()) != null && !subscriber.closed.get()) {
+                if (!write(subscriber, message)) {
+                    // client parti ou émetteur déjà terminé
+                    subscriber.buffer.clear();
+                    unsubscribe(subscriber);
+                    return;
+                }
+            }
+            if (subscriber.closed.get()) {
+                subscriber.buffer.clear();
+                try {
+                    subscriber.emitter.complete();
+                } catch (IllegalStateException ex) {
+                    // émetteur déjà terminé
+                }
+                return;
+            }
+            subscriber.draining.set(false);
+            // un message a pu arriver entre le dernier poll et la remise à false
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private boolean write(Subscriber subscriber, Object message) {
+        subscriber.writeStartedAt = System.nanoTime();
+        writing.add(subscriber);
+        try {
+            if (message == Subscriber.HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(EVENT_NAME)
+                        .id(Long.toString(sequence.incrementAndGet()))
+                        .data(message, MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            return false;
+        } finally {
+            writing.remove(subscriber);
+            subscriber.writeStartedAt = 0;
+            if (subscriber.stalled.compareAndSet(true, false)) {
+                // l'écriture s'est débloquée : le thread de remplacement est rendu
+                resizeDispatcher(stalledWriters.decrementAndGet());
+            }
+        }
+    }
+
+    /** Ajuste le pool aux threads de base plus un par écriture bloquée */
+    private synchronized void resizeDispatcher(int stalled) {
+        int size = threads + Math.max(stalled, 0);
+        if (size > dispatcher.getMaximumPoolSize()) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        topics.computeIfPresent(subscriber.lotId, (id, topic) -> {
+            topic.subscribers.remove(subscriber);
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    /** Abonnés d'un lot et dernier état en attente de diffusion */
+    private static final class Topic {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<LotUpdateDTO> latest = new AtomicReference<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    }
+
+    private static final class Subscriber {
+        private static final Object HEARTBEAT = new Object();
+
+        private final Long lotId;
+        private final SseEmitter emitter;
+        private final Queue<Object> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        /** System.nanoTime() au début du send(...) en cours, 0 hors écriture */
+        private volatile long writeStartedAt;
+
+        private Subscriber(Long lotId, SseEmitter emitter, int bufferSize) {
+            this.lotId = lotId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
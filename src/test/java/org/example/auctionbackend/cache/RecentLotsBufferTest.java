@@ -0,0 +1,84 @@
+package org.example.auctionbackend.cache;
+
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.projection.LotSummaryView;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tampon des derniers lots, sans contexte Spring : un trou laissé par une
+ * suppression renvoie la lecture vers la base.
+ */
+class RecentLotsBufferTest {
+
+    private final LotRepository lotRepository = mock(LotRepository.class);
+    private final RecentLotsBuffer buffer = new RecentLotsBuffer(lotRepository, 4);
+
+    @Test
+    void unseededOrOversizedReadsFallBackToTheDatabase() {
+        assertTrue(buffer.latest(2).isEmpty());
+
+        seed(1, 2, 3, 4);
+        assertTrue(buffer.latest(5).isEmpty());
+        assertEquals(List.of(4L, 3L), ids(buffer.latest(2)));
+    }
+
+    @Test
+    void deletedLotInRangeFallsBackToTheDatabase() {
+        seed(1, 2, 3, 4);
+
+        buffer.onLotChanged(deleted(3L));
+
+        // lot 4 seul : le trou est hors de la plage
+        assertEquals(List.of(4L), ids(buffer.latest(1)));
+        assertTrue(buffer.latest(2).isEmpty());
+        assertFalse(buffer.contains(3L));
+    }
+
+    @Test
+    void holeIsForgottenOnceNewLotsRotateIt() {
+        seed(1, 2, 3, 4);
+        buffer.onLotChanged(deleted(2L));
+
+        buffer.append(summary(5));
+        buffer.append(summary(6));
+        buffer.append(summary(7));
+
+        assertEquals(List.of(7L, 6L, 5L, 4L), ids(buffer.latest(4)));
+    }
+
+    private void seed(long... ids) {
+        // findRecentSummaries renvoie du plus récent au plus ancien
+        List<LotSummaryView> newestFirst = LongStream.of(ids).boxed()
+                .sorted((a, b) -> Long.compare(b, a))
+                .map(this::summary)
+                .toList();
+        when(lotRepository.findRecentSummaries(any())).thenReturn(newestFirst);
+        buffer.seed();
+    }
+
+    private LotSummaryView summary(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new LotSummaryView(id, "Lot " + id, "", 1L, 10.0, 10.0, now, now.plusDays(1), null);
+    }
+
+    private static LotChangedEvent deleted(Long lotId) {
+        return new LotChangedEvent(LotChangedEvent.Type.DELETED, lotId, null, null, null, null, null, null);
+    }
+
+    private static List<Long> ids(Optional<List<LotSummaryView>> lots) {
+        return lots.orElseThrow().stream().map(LotSummaryView::id).toList();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.auctionbackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les endpoints actuator ne sont servis que sur le port de gestion local,
+ * pas sur le port applicatif.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:managementport;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "management.server.port=0"
+})
+@AutoConfigureObservability
+class ManagementPortTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+    @LocalServerPort
+    private int serverPort;
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheusIsOnlyServedOnManagementPort() {
+        ResponseEntity<String> management = rest.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, management.getStatusCode());
+        assertTrue(management.getBody().contains("auction_lots_active"));
+
+        ResponseEntity<String> app = rest.getForEntity(
+                "http://127.0.0.1:" + serverPort + "/api/v1/actuator/prometheus", String.class);
+        assertNotEquals(HttpStatus.OK, app.getStatusCode());
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.auctionbackend.config;
+
+import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.model.UserFollowedLot;
+import org.example.auctionbackend.model.UserFollowedLotId;
+import org.example.auctionbackend.repository.CategoryRepository;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.UserFollowedLotRepository;
+import org.example.auctionbackend.repository.UserRepository;
+import org.example.auctionbackend.security.JwtUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Budgets SQL par endpoint, lus dans les en-têtes X-Sql-* du profil debug
+ * (cf. SqlRequestStatsFilter). Un budget dépassé signale une régression
+ * (N+1, chargement d'entités au lieu d'une projection…) ; le nombre d'ordres
+ * ne doit pas dépendre du nombre de lots renvoyés.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("debug")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlStatementBudgetTest {
+
+    private static final int LOTS = 12;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private LotRepository lotRepository;
+    @Autowired
+    private UserFollowedLotRepository followedLotRepository;
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private Long lotId;
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        Set<String> roles = new HashSet<>();
+        roles.add("ROLE_USER");
+        User user = userRepository.save(User.builder()
+                .username("budget")
+                .email("budget@example.org")
+                .password("unused")
+                .balance(1_000.0)
+                .roles(roles)
+                .build());
+        Category category = categoryRepository.save(Category.builder().name("budget").build());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Lot> lots = new ArrayList<>();
+        for (int i = 0; i < LOTS; i++) {
+            lots.add(Lot.builder()
+                    .owner(user)
+                    .title("Lot " + i)
+                    .description("Lot " + i)
+                    .initialPrice(10.0)
+                    .currentPrice(10.0)
+                    .startDate(now.minusHours(1))
+                    .endDate(now.plusDays(1))
+                    .status(LotStatus.IN_PROGRESS)
+                    .category(category)
+                    .build());
+        }
+        lots = lotRepository.saveAll(lots);
+        lotId = lots.get(0).getId();
+        for (Lot lot : lots) {
+            followedLotRepository.save(UserFollowedLot.builder()
+                    .id(new UserFollowedLotId(user.getId(), lot.getId()))
+                    .user(user)
+                    .lot(lot)
+                    .build());
+        }
+        token = jwtUtils.generateAccessToken(user.getUsername(), user.getRoles(), null);
+    }
+
+    @Test
+    void lotList() throws Exception {
+        mvc.perform(get("/lots").param("size", String.valueOf(LOTS)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2))
+                .andExpect(entitiesAtMost(0));
+    }
+
+    @Test
+    void lotListByCursor() throws Exception {
+        mvc.perform(get("/lots").param("after", "").param("size", String.valueOf(LOTS)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1))
+                .andExpect(entitiesAtMost(0));
+    }
+
+    @Test
+    void lotDetail() throws Exception {
+        mvc.perform(get("/lots/{id}", lotId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+        // servi depuis LotDetailCache
+        mvc.perform(get("/lots/{id}", lotId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(0));
+    }
+
+    @Test
+    void categoryTree() throws Exception {
+        mvc.perform(get("/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(0));
+    }
+
+    @Test
+    void followedLots() throws Exception {
+        // l'état de l'utilisateur (UserStateCache) est lu une fois, puis mis en cache
+        mvc.perform(get("/user/followed-lots").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mvc.perform(get("/user/followed-lots").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1))
+                .andExpect(entitiesAtMost(0));
+    }
+
+    @Test
+    void followedLotsPageReportsNextPageAndCapsSize() throws Exception {
+        mvc.perform(get("/user/followed-lots").header("Authorization", "Bearer " + token)
+                        .param("size", String.valueOf(LOTS - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(LOTS - 1))
+                .andExpect(jsonPath("$.hasNext").value(true));
+        mvc.perform(get("/user/followed-lots").header("Authorization", "Bearer " + token)
+                        .param("page", "1").param("size", String.valueOf(LOTS - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mvc.perform(get("/user/followed-lots").header("Authorization", "Bearer " + token)
+                        .param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(100))
+                .andExpect(jsonPath("$.content.length()").value(LOTS));
+    }
+
+    private static ResultMatcher statementsAtMost(long max) {
+        return atMost(SqlRequestStatsFilter.STATEMENTS_HEADER, max);
+    }
+
+    private static ResultMatcher entitiesAtMost(long max) {
+        return atMost(SqlRequestStatsFilter.ENTITIES_HEADER, max);
+    }
+
+    private static ResultMatcher atMost(String header, long max) {
+        return result -> {
+            String value = result.getResponse().getHeader(header);
+            assertNotNull(value, "missing " + header + " header");
+            assertTrue(Long.parseLong(value) <= max,
+                    header + " = " + value + ", budget " + max + " for " + result.getRequest().getRequestURI()
+                            + " (rows: " + result.getResponse().getHeader(SqlRequestStatsFilter.ROWS_HEADER) + ")");
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.auctionbackend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pagination par curseur de GET /lots et GET /lots/{id}/bids, sur H2 embarquée.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lotcontroller;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class LotControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        mvc.perform(get("/lots").param("after", "not-a-cursor!"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_CURSOR"));
+        // base64 valide, mais pas un id
+        mvc.perform(get("/lots").param("after", "YWJj"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_CURSOR"));
+    }
+
+    @Test
+    void outOfRangeSizeIsClamped() throws Exception {
+        mvc.perform(get("/lots").param("after", "").param("size", "0"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/lots").param("after", "").param("size", "-5"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/lots").param("after", "").param("size", "1000000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void bidHistoryRejectsMalformedCursorAndClampsSize() throws Exception {
+        mvc.perform(get("/lots/{id}/bids", 1).param("after", "not-a-cursor!"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_CURSOR"));
+        // deux clés attendues (montant, id), dont la première n'est pas un nombre
+        mvc.perform(get("/lots/{id}/bids", 1).param("after", "eHwx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_CURSOR"));
+        mvc.perform(get("/lots/{id}/bids", 1).param("size", "0"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/lots/{id}/bids", 1).param("size", "1000000"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.auctionbackend.controller;
+
+import org.example.auctionbackend.cache.IdempotencyCache;
+import org.example.auctionbackend.model.TransactionType;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.model.UserTransaction;
+import org.example.auctionbackend.repository.UserRepository;
+import org.example.auctionbackend.repository.UserTransactionRepository;
+import org.example.auctionbackend.security.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Approvisionnement du compte (POST /user/top-up), sur H2 embarquée.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:usercontroller;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @MockitoSpyBean
+    private UserTransactionRepository transactionRepository;
+
+    @Test
+    void blankIdempotencyKeyDoesNotDedupeTopUps() throws Exception {
+        String token = tokenFor(persistUser("blank-key"));
+
+        // deux top-ups distincts, chacun avec un en-tête Idempotency-Key vide
+        topUp(token, "").andExpect(jsonPath("$.balance").value(100.0));
+        topUp(token, "").andExpect(jsonPath("$.balance").value(200.0));
+
+        assertEquals(200.0, userRepository.findByUsername("blank-key").orElseThrow().getBalance());
+    }
+
+    @Test
+    void replayedIdempotencyKeyCreditsOnce() throws Exception {
+        String token = tokenFor(persistUser("same-key"));
+
+        topUp(token, "top-up-1").andExpect(jsonPath("$.balance").value(100.0));
+        topUp(token, "top-up-1").andExpect(jsonPath("$.balance").value(100.0));
+
+        assertEquals(100.0, userRepository.findByUsername("same-key").orElseThrow().getBalance());
+    }
+
+    @Test
+    void invalidOrReusedIdempotencyKeyIsAClientError() throws Exception {
+        String token = tokenFor(persistUser("bad-key"));
+
+        postTopUp(token, "k".repeat(101), 100)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_IDEMPOTENCY_KEY"));
+
+        topUp(token, "top-up-2");
+        postTopUp(token, "top-up-2", 150)
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("IDEMPOTENCY_KEY_REUSED"));
+
+        assertEquals(100.0, userRepository.findByUsername("bad-key").orElseThrow().getBalance());
+    }
+
+    @Test
+    void concurrentTopUpWithSameKeyOnAnotherInstanceIsAReplay() throws Exception {
+        User user = persistUser("racing-key");
+        String token = tokenFor(user);
+        // l'autre instance a déjà crédité la clé, mais son commit n'était pas
+        // visible lors de la vérification : seule la contrainte unique le détecte
+        user.setBalance(100.0);
+        user = userRepository.save(user);
+        transactionRepository.save(UserTransaction.builder()
+                .user(user)
+                .amount(100.0)
+                .type(TransactionType.TOP_UP)
+                .idempotencyKey("top-up-3")
+                .timestamp(LocalDateTime.now())
+                .build());
+        doReturn(false).doReturn(true)
+                .when(transactionRepository).existsByUserIdAndIdempotencyKey(user.getId(), "top-up-3");
+
+        topUp(token, "top-up-3").andExpect(jsonPath("$.balance").value(100.0));
+
+        assertEquals(100.0, userRepository.findByUsername("racing-key").orElseThrow().getBalance());
+    }
+
+    private ResultActions topUp(String token, String key) throws Exception {
+        return postTopUp(token, key, 100).andExpect(status().isOk());
+    }
+
+    private ResultActions postTopUp(String token, String key, int amount) throws Exception {
+        return mvc.perform(post("/user/top-up")
+                .header("Authorization", "Bearer " + token)
+                .header(IdempotencyCache.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":" + amount + "}"));
+    }
+
+    private User persistUser(String username) {
+        Set<String> roles = new HashSet<>();
+        roles.add("ROLE_USER");
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.org")
+                .password("unused")
+                .balance(0.0)
+                .roles(roles)
+                .build());
+    }
+
+    private String tokenFor(User user) {
+        return jwtUtils.generateAccessToken(user.getUsername(), user.getRoles(), null);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.auctionbackend.loadtest;
+
+import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.CategoryRepository;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.UserRepository;
+import org.example.auctionbackend.security.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tempête d'enchères sur l'application complète (Tomcat, sécurité, JPA),
+ * base H2 embarquée en mode MySQL : aucune dépendance réseau.
+ *
+ * Exclu du build par défaut ; lancement :
+ * <pre>
+ * mvn -Ploadtest test -Dloadtest.rate=500 -Dloadtest.duration=2m -Dloadtest.hot-share=0.9
+ * </pre>
+ * Paramètres : voir LoadTestSettings et application-loadtest.properties.
+ * Résumé sur la sortie standard, distributions dans target/loadtest/*.hgrm.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class BidStormLoadTest {
+
+    private static final double INITIAL_PRICE = 10.0;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private LotRepository lotRepository;
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    void bidStorm() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.from(environment);
+
+        // le premier utilisateur est le vendeur de tous les lots, les autres enchérissent
+        List<User> users = seedUsers(settings.users() + 1);
+        List<User> bidders = users.subList(1, users.size());
+        List<Category> categories = seedCategories(settings.categories());
+        List<Long> lotIds = seedLots(settings.lots(), users.get(0), categories);
+        List<String> tokens = bidders.stream()
+                .map(u -> jwtUtils.generateAccessToken(u.getUsername(), u.getRoles(), null))
+                .toList();
+
+        LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port + "/api/v1/"),
+                settings, lotIds, tokens, INITIAL_PRICE);
+        driver.run();
+        driver.report(System.out);
+        driver.writeHistograms(Path.of("target", "loadtest"));
+
+        // garde-fou : le banc lui-même fonctionne (pas un seuil de performance)
+        for (LoadDriver.Operation op : LoadDriver.Operation.values()) {
+            assertTrue(driver.succeeded(op) > 0, "no successful " + op + " request");
+        }
+    }
+
+    private List<User> seedUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Set<String> roles = new HashSet<>();
+            roles.add("ROLE_USER");
+            // mot de passe inutilisé : les jetons sont émis directement
+            users.add(User.builder()
+                    .username("loadtest-" + i)
+                    .email("loadtest-" + i + "@example.org")
+                    .password("unused")
+                    .balance(1e12)
+                    .roles(roles)
+                    .build());
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private List<Category> seedCategories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            categories.add(Category.builder().name("loadtest-category-" + i).build());
+        }
+        return categoryRepository.saveAll(categories);
+    }
+
+    private List<Long> seedLots(int count, User seller, List<Category> categories) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Lot> lots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lots.add(Lot.builder()
+                    .owner(seller)
+                    .title("Lot " + i)
+                    .description("Seeded lot " + i)
+                    .initialPrice(INITIAL_PRICE)
+                    .currentPrice(INITIAL_PRICE)
+                    .startDate(now.minusHours(1))
+                    .endDate(now.plusDays(1))
+                    .status(LotStatus.IN_PROGRESS)
+                    .category(categories.get(i % categories.size()))
+                    .build());
+        }
+        return lotRepository.saveAll(lots).stream().map(Lot::getId).toList();
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.auctionbackend.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge HTTP en boucle ouverte.
+ *
+ * Les requêtes partent à cadence fixe (loadtest.rate), qu'elles aient reçu
+ * leur réponse ou non, comme des clients indépendants. La latence est mesurée
+ * depuis l'instant où la requête aurait dû partir : un serveur qui ralentit
+ * voit ses retards comptés au lieu d'être masqués par un client qui attend
+ * (omission coordonnée).
+ *
+ * Les latences sont enregistrées en microsecondes, par opération, dans des
+ * histogrammes HdrHistogram ; seules les requêtes prévues après la chauffe
+ * sont comptées.
+ */
+final class LoadDriver {
+
+    enum Operation { BID, LIST, DETAIL }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int LIST_PAGE_SIZE = 10;
+    private static final int LIST_MAX_PAGE = 10;
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final List<Long> lotIds;
+    private final List<String> tokens;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+
+    /** Prochain montant proposé par lot : chaque enchère surenchérit d'une unité */
+    private final ConcurrentMap<Long, AtomicLong> nextAmount = new ConcurrentHashMap<>();
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private long measuredNanos;
+
+    /**
+     * @param lotIds ids des lots seedés ; les settings.hotLots() premiers sont les lots chauds
+     * @param tokens jetons d'accès des enchérisseurs
+     */
+    LoadDriver(URI baseUri, LoadTestSettings settings, List<Long> lotIds, List<String> tokens,
+               double initialPrice) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.lotIds = lotIds;
+        this.tokens = tokens;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.inFlight = new Semaphore(settings.maxInFlight());
+        for (Long id : lotIds) {
+            nextAmount.put(id, new AtomicLong((long) initialPrice));
+        }
+        for (Operation op : Operation.values()) {
+            stats.put(op, new Stats());
+        }
+    }
+
+    /**
+     * Joue la chauffe puis la période mesurée, et attend les dernières réponses.
+     */
+    void run() {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        long interval = 1_000_000_000L / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquireUninterruptibly();
+            send(next(random), intended, intended >= measureFrom);
+        }
+        inFlight.acquireUninterruptibly(settings.maxInFlight());
+        inFlight.release(settings.maxInFlight());
+        measuredNanos = end - measureFrom;
+    }
+
+    private void send(Call call, long intended, boolean measured) {
+        client.sendAsync(call.request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latencyMicros = (System.nanoTime() - intended) / 1_000;
+                    inFlight.release();
+                    if (measured) {
+                        stats.get(call.op).record(latencyMicros, error == null ? response.statusCode() : -1);
+                    }
+                });
+    }
+
+    /** Tire la prochaine requête selon le mélange et la concentration sur les lots chauds */
+    private Call next(SplittableRandom random) {
+        int total = settings.bidWeight() + settings.listWeight() + settings.detailWeight();
+        int pick = random.nextInt(total);
+        if (pick < settings.bidWeight()) {
+            Long lotId = pickLot(random);
+            long amount = nextAmount.get(lotId).incrementAndGet();
+            String token = tokens.get(random.nextInt(tokens.size()));
+            return new Call(Operation.BID, HttpRequest.newBuilder(baseUri.resolve("lots/" + lotId + "/bids"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":" + amount + "}"))
+                    .build());
+        }
+        if (pick < settings.bidWeight() + settings.listWeight()) {
+            int pages = Math.max(1, Math.min(LIST_MAX_PAGE, lotIds.size() / LIST_PAGE_SIZE));
+            return new Call(Operation.LIST, HttpRequest.newBuilder(baseUri.resolve(
+                            "lots?page=" + random.nextInt(pages) + "&size=" + LIST_PAGE_SIZE))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build());
+        }
+        return new Call(Operation.DETAIL, HttpRequest.newBuilder(baseUri.resolve("lots/" + pickLot(random)))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build());
+    }
+
+    private Long pickLot(SplittableRandom random) {
+        int hot = Math.min(settings.hotLots(), lotIds.size());
+        if (hot > 0 && random.nextDouble() < settings.hotShare()) {
+            return lotIds.get(random.nextInt(hot));
+        }
+        return lotIds.get(random.nextInt(lotIds.size()));
+    }
+
+    /** Nombre de réponses 2xx mesurées pour l'opération */
+    long succeeded(Operation op) {
+        return stats.get(op).succeeded.sum();
+    }
+
+    /**
+     * Résumé lisible : débit, percentiles de latence (ms) et codes de réponse par opération.
+     */
+    void report(PrintStream out) {
+        double seconds = measuredNanos / 1e9;
+        out.println("=== Load test: " + settings);
+        out.printf("%-7s %9s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "op", "count", "req/s", "p50", "p90", "p99", "p99.9", "max", "mean", "status");
+        long totalCount = 0;
+        for (Operation op : Operation.values()) {
+            Stats s = stats.get(op);
+            Histogram h = s.histogram();
+            totalCount += h.getTotalCount();
+            out.printf("%-7s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    op, h.getTotalCount(), h.getTotalCount() / seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()), h.getMean() / 1_000.0, s.statuses());
+        }
+        out.printf("total   %9d %9.1f   (latencies in ms, measured from the intended send time)%n",
+                totalCount, totalCount / seconds);
+    }
+
+    /**
+     * Écrit la distribution complète de chaque opération (format .hgrm, en ms)
+     * pour comparer deux versions avec les outils HdrHistogram.
+     */
+    void writeHistograms(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (Operation op : Operation.values()) {
+            Path file = dir.resolve(op.name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                stats.get(op).histogram().outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private record Call(Operation op, HttpRequest request) {
+    }
+
+    /** Latences et codes de réponse d'une opération ; -1 : erreur d'E/S ou timeout */
+    private static final class Stats {
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder succeeded = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private Histogram histogram;
+
+        void record(long latencyMicros, int status) {
+            recorder.recordValue(Math.max(latencyMicros, 1));
+            byStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+            if (status >= 200 && status < 300) {
+                succeeded.increment();
+            }
+        }
+
+        synchronized Histogram histogram() {
+            if (histogram == null) {
+                histogram = recorder.getIntervalHistogram();
+            }
+            return histogram;
+        }
+
+        String statuses() {
+            Map<Integer, Long> sorted = new TreeMap<>();
+            byStatus.forEach((status, count) -> sorted.put(status, count.sum()));
+            return sorted.toString();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.auctionbackend.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Paramètres d'une campagne de charge, lus dans les propriétés loadtest.*
+ * (application-loadtest.properties, surchargeables en -Dloadtest.xxx=...).
+ *
+ * @param rate         requêtes lancées par seconde (charge ouverte, indépendante des réponses)
+ * @param warmup       durée de chauffe, non mesurée
+ * @param duration     durée mesurée
+ * @param maxInFlight  requêtes simultanées au plus (au-delà, l'attente compte dans la latence)
+ * @param users        enchérisseurs créés
+ * @param lots         lots en cours créés
+ * @param categories   catégories créées
+ * @param hotLots      nombre de lots "chauds"
+ * @param hotShare     part des requêtes par lot (enchère, détail) qui visent un lot chaud
+ * @param bidWeight    poids de POST /lots/{id}/bids dans le mélange
+ * @param listWeight   poids de GET /lots
+ * @param detailWeight poids de GET /lots/{id}
+ * @param seed         graine du tirage (deux campagnes de même graine jouent la même séquence)
+ */
+record LoadTestSettings(int rate,
+                        Duration warmup,
+                        Duration duration,
+                        int maxInFlight,
+                        int users,
+                        int lots,
+                        int categories,
+                        int hotLots,
+                        double hotShare,
+                        int bidWeight,
+                        int listWeight,
+                        int detailWeight,
+                        long seed) {
+
+    static LoadTestSettings from(Environment env) {
+        return new LoadTestSettings(
+                env.getProperty("loadtest.rate", Integer.class, 200),
+                duration(env, "loadtest.warmup", "10s"),
+                duration(env, "loadtest.duration", "60s"),
+                env.getProperty("loadtest.max-in-flight", Integer.class, 256),
+                env.getProperty("loadtest.users", Integer.class, 500),
+                env.getProperty("loadtest.lots", Integer.class, 2000),
+                env.getProperty("loadtest.categories", Integer.class, 20),
+                env.getProperty("loadtest.hot-lots", Integer.class, 5),
+                env.getProperty("loadtest.hot-share", Double.class, 0.8),
+                env.getProperty("loadtest.mix.bid", Integer.class, 50),
+                env.getProperty("loadtest.mix.list", Integer.class, 25),
+                env.getProperty("loadtest.mix.detail", Integer.class, 25),
+                env.getProperty("loadtest.seed", Long.class, 42L));
+    }
+
+    private static Duration duration(Environment env, String key, String defaultValue) {
+        return DurationStyle.detectAndParse(env.getProperty(key, defaultValue));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rate=%d/s warmup=%s duration=%s max-in-flight=%d users=%d lots=%d categories=%d "
+                        + "hot-lots=%d hot-share=%.2f mix(bid/list/detail)=%d/%d/%d seed=%d",
+                rate, warmup, duration, maxInFlight, users, lots, categories,
+                hotLots, hotShare, bidWeight, listWeight, detailWeight, seed);
+    }
+}
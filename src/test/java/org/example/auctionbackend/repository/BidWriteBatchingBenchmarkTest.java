@@ -0,0 +1,159 @@
+package org.example.auctionbackend.repository;
+
+import org.example.auctionbackend.config.SqlRequestStatsFilter;
+import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.security.JwtUtils;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ordres SQL préparés par enchère, mesurés sur le vrai chemin
+ * POST /lots/{id}/bids → BidService.placeBid (en-tête X-Sql-Statements du
+ * profil debug, H2 embarquée), avec et sans batching JDBC.
+ *
+ * Une enchère qui évince le leader insère réserve, remboursement, bid et
+ * événement outbox ; un changement de settle() qui sépare ces insertions
+ * (flush intermédiaire, requête déclenchant un auto-flush…) fait monter le compte.
+ *
+ * La réservation des blocs d'ids (id_generators, sur une connexion isolée)
+ * n'entre pas dans ce compte.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bidbatching;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("debug")
+class BidWriteBatchingBenchmarkTest {
+
+    private static final int BIDS = 100;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void batchedInsertsShareStatements() throws Exception {
+        // 4 insertions en 3 ordres : les deux user_transactions partent dans le même lot
+        assertEquals(9.0, new BidBench(context).statementsPerBid("batched"));
+    }
+
+    /** Taille de lot 1 : comportement imposé auparavant par IDENTITY */
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bidnobatching;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=1"
+    })
+    class WithoutBatching {
+
+        // le contexte de cette classe, et non celui de la classe englobante
+        @Autowired
+        private ApplicationContext context;
+
+        @Test
+        void everyInsertIsItsOwnStatement() throws Exception {
+            // 4 insertions, 4 ordres : un de plus qu'avec batching
+            assertEquals(10.0, new BidBench(context).statementsPerBid("unbatched"));
+        }
+    }
+
+    /**
+     * Place BIDS enchères alternées entre deux enchérisseurs (chacune évince
+     * l'autre : réserve, remboursement, bid, outbox) et renvoie le nombre
+     * moyen d'ordres préparés par requête.
+     */
+    private static final class BidBench {
+
+        private final MockMvc mvc;
+        private final UserRepository userRepository;
+        private final CategoryRepository categoryRepository;
+        private final LotRepository lotRepository;
+        private final JwtUtils jwtUtils;
+
+        private BidBench(ApplicationContext context) {
+            this.mvc = context.getBean(MockMvc.class);
+            this.userRepository = context.getBean(UserRepository.class);
+            this.categoryRepository = context.getBean(CategoryRepository.class);
+            this.lotRepository = context.getBean(LotRepository.class);
+            this.jwtUtils = context.getBean(JwtUtils.class);
+        }
+
+        private double statementsPerBid(String prefix) throws Exception {
+            User seller = persistUser(prefix + "-seller");
+            String[] tokens = {token(persistUser(prefix + "-a")), token(persistUser(prefix + "-b"))};
+            Long lotId = persistLot(prefix, seller).getId();
+
+            // première enchère de chaque enchérisseur : état utilisateur mis en cache
+            bid(lotId, tokens[0], 11.0);
+            bid(lotId, tokens[1], 12.0);
+
+            long statements = 0;
+            for (int i = 0; i < BIDS; i++) {
+                statements += bid(lotId, tokens[i % 2], 13.0 + i);
+            }
+            return (double) statements / BIDS;
+        }
+
+        private long bid(Long lotId, String token, double amount) throws Exception {
+            MvcResult result = mvc.perform(post("/lots/{id}/bids", lotId)
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\":" + amount + "}"))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            return Long.parseLong(result.getResponse().getHeader(SqlRequestStatsFilter.STATEMENTS_HEADER));
+        }
+
+        private String token(User user) {
+            return jwtUtils.generateAccessToken(user.getUsername(), user.getRoles(), null);
+        }
+
+        private User persistUser(String username) {
+            return userRepository.save(User.builder()
+                    .username(username)
+                    .email(username + "@example.org")
+                    .password("unused")
+                    .balance(1_000_000.0)
+                    .roles(Set.of("ROLE_USER"))
+                    .build());
+        }
+
+        private Lot persistLot(String name, User seller) {
+            Category category = categoryRepository.save(Category.builder().name(name).build());
+            LocalDateTime now = LocalDateTime.now();
+            return lotRepository.save(Lot.builder()
+                    .owner(seller)
+                    .title(name)
+                    .description(name)
+                    .initialPrice(10.0)
+                    .currentPrice(10.0)
+                    .startDate(now.minusHours(1))
+                    .endDate(now.plusDays(1))
+                    .status(LotStatus.IN_PROGRESS)
+                    .category(category)
+                    .build());
+        }
+    }
+}
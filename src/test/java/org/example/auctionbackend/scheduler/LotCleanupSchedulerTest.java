@@ -0,0 +1,47 @@
+package org.example.auctionbackend.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.auctionbackend.event.LotChangedEvent;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.repository.LotRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Purge des lots terminés : chaque lot supprimé est annoncé aux caches.
+ */
+class LotCleanupSchedulerTest {
+
+    @Test
+    void purgedLotsArePublishedAsDeleted() {
+        LotRepository lotRepository = mock(LotRepository.class);
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        LocalDateTime ended = LocalDateTime.now().minusDays(10);
+        List<Lot> old = List.of(
+                Lot.builder().id(1L).status(LotStatus.SOLD).endDate(ended).build(),
+                Lot.builder().id(2L).status(LotStatus.UNSOLD).endDate(ended).build());
+        when(lotRepository.findAllByStatusInAndEndDateBefore(anyList(), any())).thenReturn(old);
+
+        new LotCleanupScheduler(lotRepository, publisher, new SimpleMeterRegistry()).purgeOldLots();
+
+        verify(lotRepository).deleteAll(old);
+        ArgumentCaptor<LotChangedEvent> events = ArgumentCaptor.forClass(LotChangedEvent.class);
+        verify(publisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(1L, 2L), events.getAllValues().stream().map(LotChangedEvent::getLotId).toList());
+        assertEquals(List.of(LotChangedEvent.Type.DELETED, LotChangedEvent.Type.DELETED),
+                events.getAllValues().stream().map(LotChangedEvent::getType).toList());
+    }
+}
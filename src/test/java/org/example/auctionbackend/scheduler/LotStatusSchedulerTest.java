@@ -0,0 +1,83 @@
+package org.example.auctionbackend.scheduler;
+
+import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.CategoryRepository;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.UserRepository;
+import org.example.auctionbackend.service.LotServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Balayage de secours des statuts, sur H2 embarquée.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statussweep;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "auction.lots.status-sweep-cron=-"
+})
+class LotStatusSchedulerTest {
+
+    @Autowired
+    private LotStatusScheduler scheduler;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private LotRepository lotRepository;
+    @MockitoSpyBean
+    private LotServiceImpl lotService;
+
+    @Test
+    void failedTransitionDoesNotRollBackTheOthers() {
+        User seller = userRepository.save(User.builder()
+                .username("sweep-seller")
+                .email("sweep-seller@example.org")
+                .password("unused")
+                .balance(0.0)
+                .build());
+        Category category = categoryRepository.save(Category.builder().name("sweep").build());
+        Long failing = persistExpiredLot("sweep-failing", seller, category).getId();
+        Long other = persistExpiredLot("sweep-other", seller, category).getId();
+        doThrow(new ObjectOptimisticLockingFailureException(Lot.class, failing))
+                .when(lotService).refreshLotStatus(argThat(lot -> lot.getId().equals(failing)));
+
+        scheduler.updateExpiredLotsStatus();
+
+        // le lot en échec reste à rattraper, l'autre est clos
+        assertEquals(LotStatus.IN_PROGRESS, lotRepository.findById(failing).orElseThrow().getStatus());
+        assertEquals(LotStatus.UNSOLD, lotRepository.findById(other).orElseThrow().getStatus());
+    }
+
+    private Lot persistExpiredLot(String name, User seller, Category category) {
+        LocalDateTime now = LocalDateTime.now();
+        return lotRepository.save(Lot.builder()
+                .owner(seller)
+                .title(name)
+                .description(name)
+                .initialPrice(10.0)
+                .currentPrice(10.0)
+                .startDate(now.minusDays(2))
+                .endDate(now.minusMinutes(1))
+                .status(LotStatus.IN_PROGRESS)
+                .category(category)
+                .build());
+    }
+}
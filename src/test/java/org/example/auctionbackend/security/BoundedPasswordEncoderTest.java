@@ -0,0 +1,41 @@
+package org.example.auctionbackend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bornes du pool BCrypt : les requêtes en attente d'un hachage ne peuvent
+ * pas occuper les threads Tomcat.
+ */
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void waitersMustStayWellBelowRequestThreads() {
+        assertThrows(IllegalStateException.class,
+                () -> new BoundedPasswordEncoder(new SimpleMeterRegistry(), 4, 1, 11, 40));
+    }
+
+    @Test
+    void callersBeyondMaxWaitersAreRejected() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // coût 16 : plusieurs secondes, l'unique place reste occupée pendant l'appel suivant
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(registry, 16, 1, 1, 40);
+        try {
+            CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> encoder.encode("secret"));
+            while (registry.get("auction.password.waiting").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+            assertThrows(RejectedExecutionException.class, () -> encoder.matches("secret", "unused"));
+            assertTrue(slow.get(60, TimeUnit.SECONDS).startsWith("$2"));
+        } finally {
+            encoder.stop();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.auctionbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test de contention de BidSequencer, sans Spring ni base : chaque "lot" est
+ * un objet en mémoire lu, vérifié puis réécrit de façon non atomique, comme
+ * le fait placeBid. Sans sérialisation, ce schéma perd des mises à jour.
+ */
+class BidSequencerTest {
+
+    private static final int THREADS = 16;
+    private static final int BIDS_PER_THREAD = 100;
+    /** Durée simulée d'une transaction d'enchère (aller-retours base) */
+    private static final long CRITICAL_SECTION_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Test
+    void bidsOnSameLotNeverRegressOrGetLost() throws Exception {
+        BidSequencer sequencer = new BidSequencer(64, Duration.ofSeconds(30));
+        SimulatedLot[] lots = runBids(sequencer, 1);
+
+        SimulatedLot lot = lots[0];
+        assertEquals(THREADS * BIDS_PER_THREAD, lot.accepted);
+        assertEquals(lot.accepted, lot.price, "every accepted bid must be reflected in the price");
+        assertTrue(lot.strictlyIncreasing, "price regressed");
+    }
+
+    @Test
+    void distinctLotsHoldTheirLocksConcurrently() throws Exception {
+        BidSequencer sequencer = new BidSequencer(64, Duration.ofSeconds(30));
+        int lots = 8;
+        // chaque thread attend, verrou tenu, que les 7 autres tiennent aussi le leur :
+        // si deux lots partageaient un verrou, le loquet ne s'ouvrirait jamais
+        CountDownLatch allHolding = new CountDownLatch(lots);
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger maxHolders = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(lots);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (long id = 1; id <= lots; id++) {
+                long lotId = id;
+                futures.add(pool.submit(() -> sequencer.withLock(lotId, () -> {
+                    maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max);
+                    allHolding.countDown();
+                    try {
+                        return allHolding.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    } finally {
+                        holders.decrementAndGet();
+                    }
+                })));
+            }
+            for (Future<Boolean> f : futures) {
+                assertTrue(f.get(30, TimeUnit.SECONDS), "lock holders on distinct lots did not overlap");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(lots, maxHolders.get());
+    }
+
+    @Test
+    void lockTimeoutIsARetryableRejection() throws Exception {
+        BidSequencer sequencer = new BidSequencer(64, Duration.ofMillis(50));
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = pool.submit(() -> sequencer.withLock(1L, () -> {
+                held.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+            assertTrue(held.await(10, TimeUnit.SECONDS));
+
+            LotBusyException ex = assertThrows(LotBusyException.class, () -> sequencer.withLock(1L, () -> true));
+            assertEquals(BidRejection.BUSY.message(), ex.getMessage());
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void sequentialLotIdsUseDistinctStripes() {
+        BidSequencer sequencer = new BidSequencer(200, Duration.ofSeconds(1));
+        assertEquals(256, sequencer.stripes());
+        for (long id = 1; id < 256; id++) {
+            assertNotEquals(sequencer.stripeOf(id), sequencer.stripeOf(id + 1));
+        }
+    }
+
+    /**
+     * Lance THREADS enchérisseurs ; le thread i enchérit sur le lot i % hotLots.
+     */
+    private SimulatedLot[] runBids(BidSequencer sequencer, int hotLots) throws Exception {
+        SimulatedLot[] lots = new SimulatedLot[hotLots];
+        for (int i = 0; i < hotLots; i++) {
+            lots[i] = new SimulatedLot(i + 1L);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                SimulatedLot lot = lots[t % hotLots];
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < BIDS_PER_THREAD; i++) {
+                        sequencer.withLock(lot.id, lot::bidOneAboveCurrent);
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return lots;
+    }
+
+    /**
+     * Lot en mémoire, volontairement non thread-safe : lecture du prix,
+     * "aller-retour base", puis écriture.
+     */
+    private static final class SimulatedLot {
+        private final Long id;
+        private long price;
+        private int accepted;
+        private boolean strictlyIncreasing = true;
+
+        private SimulatedLot(Long id) {
+            this.id = id;
+        }
+
+        private boolean bidOneAboveCurrent() {
+            long current = price;
+            long amount = current + 1;
+            LockSupport.parkNanos(CRITICAL_SECTION_NANOS);
+            // une écriture concurrente entre la lecture et l'écriture ferait régresser le prix
+            if (price >= amount) {
+                strictlyIncreasing = false;
+            }
+            price = amount;
+            accepted++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.auctionbackend.service;
+
+import org.example.auctionbackend.dto.ProxyBidDTO;
+import org.example.auctionbackend.model.Category;
+import org.example.auctionbackend.model.Lot;
+import org.example.auctionbackend.model.LotStatus;
+import org.example.auctionbackend.model.User;
+import org.example.auctionbackend.repository.CategoryRepository;
+import org.example.auctionbackend.repository.LotRepository;
+import org.example.auctionbackend.repository.ProxyBidRepository;
+import org.example.auctionbackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Réservations du solde lors des enchères maximales, sur H2 embarquée.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bidservice;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class BidServiceImplTest {
+
+    @Autowired
+    private BidService bidService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @MockitoSpyBean
+    private LotRepository lotRepository;
+    @Autowired
+    private ProxyBidRepository proxyBidRepository;
+
+    @Test
+    @WithMockUser
+    void leaderRaisesCeilingAboveFreeBalance() {
+        User bidder = persistUser("ceiling-bidder", 150.0);
+        Long lotId = persistLot("ceiling").getId();
+
+        ProxyBidDTO first = bidService.placeProxyBid(bidder.getUsername(), lotId, 100.0);
+        assertTrue(first.isLeading());
+        assertEquals(50.0, balanceOf(bidder));
+
+        // 50 libres, 100 réservés : relever à 120 ne demande que 20 de plus
+        ProxyBidDTO raised = bidService.placeProxyBid(bidder.getUsername(), lotId, 120.0);
+        assertTrue(raised.isLeading());
+        assertEquals(120.0, raised.getMaxAmount());
+        assertEquals(30.0, balanceOf(bidder));
+
+        // au-delà du solde libre plus la réservation : refusé, rien n'est remboursé
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> bidService.placeProxyBid(bidder.getUsername(), lotId, 200.0));
+        assertEquals(BidRejection.INSUFFICIENT_BALANCE.message(), ex.getMessage());
+        assertEquals(30.0, balanceOf(bidder));
+    }
+
+    @Test
+    @WithMockUser
+    void highestCeilingWinsAtRunnerUpPlusIncrementAndExhaustedProxiesAreRefunded() {
+        User alice = persistUser("resolve-alice", 500.0);
+        User bob = persistUser("resolve-bob", 500.0);
+        User carol = persistUser("resolve-carol", 300.0);
+        Long lotId = persistLot("resolve").getId();
+
+        bidService.placeProxyBid(alice.getUsername(), lotId, 100.0);
+        assertEquals(400.0, balanceOf(alice));
+
+        // bob l'emporte au plafond d'alice + incrément ; alice est désactivée et remboursée
+        ProxyBidDTO bobProxy = bidService.placeProxyBid(bob.getUsername(), lotId, 150.0);
+        assertTrue(bobProxy.isLeading());
+        assertLot(lotId, 101.0, bob);
+        assertTrue(proxyBidRepository.findActive(lotId, alice.getId()).isEmpty());
+        assertEquals(500.0, balanceOf(alice));
+        assertEquals(350.0, balanceOf(bob));
+
+        // enchère manuelle sous le plafond de bob : il se défend à 120 + incrément
+        bidService.placeBid(carol.getUsername(), lotId, 120.0);
+        assertLot(lotId, 121.0, bob);
+        assertEquals(300.0, balanceOf(carol));
+        assertEquals(350.0, balanceOf(bob));
+
+        // enchère manuelle au-dessus du plafond : bob est épuisé, son plafond entier lui revient
+        bidService.placeBid(carol.getUsername(), lotId, 200.0);
+        assertLot(lotId, 200.0, carol);
+        assertTrue(proxyBidRepository.findActive(lotId, bob.getId()).isEmpty());
+        assertEquals(500.0, balanceOf(bob));
+        assertEquals(100.0, balanceOf(carol));
+    }
+
+    @Test
+    @WithMockUser
+    void lostCompareAndSetIsARetryableRejection() {
+        User bidder = persistUser("contention-bidder", 500.0);
+        Long lotId = persistLot("contention").getId();
+        // chaque compare-and-set perd face à une écriture concurrente
+        doReturn(0).when(lotRepository).compareAndSetBid(eq(lotId), anyDouble(), anyDouble(), any(), any());
+
+        LotBusyException ex = assertThrows(LotBusyException.class,
+                () -> bidService.placeBid(bidder.getUsername(), lotId, 50.0));
+        assertEquals(BidRejection.CONTENTION.message(), ex.getMessage());
+        assertEquals(500.0, balanceOf(bidder));
+    }
+
+    private void assertLot(Long lotId, double price, User leader) {
+        Lot lot = lotRepository.findById(lotId).orElseThrow();
+        assertEquals(price, lot.getCurrentPrice());
+        assertEquals(leader.getId(), lot.getCurrentLeader().getId());
+    }
+
+    private double balanceOf(User user) {
+        return userRepository.findById(user.getId()).orElseThrow().getBalance();
+    }
+
+    private User persistUser(String username, double balance) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.org")
+                .password("unused")
+                .balance(balance)
+                .build());
+    }
+
+    private Lot persistLot(String name) {
+        User seller = persistUser(name + "-seller", 0.0);
+        Category category = categoryRepository.save(Category.builder().name(name).build());
+        LocalDateTime now = LocalDateTime.now();
+        return lotRepository.save(Lot.builder()
+                .owner(seller)
+                .title(name)
+                .description(name)
+                .initialPrice(10.0)
+                .currentPrice(10.0)
+                .startDate(now.minusHours(1))
+                .endDate(now.plusDays(1))
+                .status(LotStatus.IN_PROGRESS)
+                .category(category)
+                .build());
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.auctionbackend.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.auctionbackend.dto.LotUpdateDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flux SSE sans contexte Spring : plafond d'abonnés, coalescence des mises à
+ * jour, déconnexion des abonnés lents et ping sur le timer du hub.
+ */
+class LotStreamHubTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    /** Fermée : tout send(...) bloque, comme sur un socket client plein */
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch firstSend = new CountDownLatch(1);
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+
+    private LotStreamHub hub;
+
+    @AfterEach
+    void stop() {
+        gate.countDown();
+        hub.stop();
+    }
+
+    @Test
+    void subscriberCapIsRejectedAsRetryable() {
+        hub = recordingHub(1, Duration.ofMinutes(1));
+        gate.countDown();
+        hub.subscribe(1L, update(10.0));
+
+        // RejectedExecutionException : 503 + Retry-After, et non 500
+        assertThrows(RejectedExecutionException.class, () -> hub.subscribe(1L, update(10.0)));
+        assertEquals(1, hub.subscriberCount());
+    }
+
+    @Test
+    void burstWhileAFlushIsPendingSendsOnlyTheLatestPrice() throws Exception {
+        hub = recordingHub(10, Duration.ofMinutes(1));
+        hub.subscribe(1L, update(10.0));
+        // l'unique thread du pool est bloqué dans l'envoi de l'état initial
+        assertTrue(firstSend.await(5, TimeUnit.SECONDS));
+
+        hub.publish(1L, update(11.0));
+        hub.publish(1L, update(12.0));
+        hub.publish(1L, update(13.0));
+        gate.countDown();
+
+        awaitUntil(() -> prices().contains(13.0));
+        assertEquals(List.of(10.0, 13.0), prices());
+    }
+
+    @Test
+    void subscriberWhoseBufferOverflowsIsDisconnected() throws Exception {
+        hub = recordingHub(10, Duration.ofMinutes(1));
+        hub.subscribe(1L, update(10.0));
+        assertTrue(firstSend.await(5, TimeUnit.SECONDS));
+
+        // tampon de 4 : rempli sans déconnexion, puis un message de trop
+        for (int i = 0; i < 4; i++) {
+            hub.heartbeat();
+        }
+        assertEquals(1, hub.subscriberCount());
+        hub.heartbeat();
+
+        assertEquals(0, hub.subscriberCount());
+        assertEquals(1.0, registry.get("auction.stream.slow.disconnects").counter().count());
+    }
+
+    @Test
+    void heartbeatRunsOnTheHubTimer() throws Exception {
+        hub = recordingHub(10, Duration.ofMillis(50));
+        gate.countDown();
+        hub.subscribe(1L, update(10.0));
+
+        awaitUntil(() -> sent.stream().anyMatch(data -> data instanceof String s && s.contains("ping")));
+    }
+
+    private LotStreamHub recordingHub(int maxSubscribers, Duration heartbeat) {
+        return new LotStreamHub(registry, 1, Duration.ofMinutes(1), 4, maxSubscribers,
+                Duration.ofSeconds(5), 4, heartbeat.toMillis(), 1000) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        firstSend.countDown();
+                        try {
+                            gate.await();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException(ex);
+                        }
+                        builder.build().stream().map(ResponseBodyEmitter.DataWithMediaType::getData).forEach(sent::add);
+                    }
+                };
+            }
+        };
+    }
+
+    private List<Double> prices() {
+        return sent.stream()
+                .filter(LotUpdateDTO.class::isInstance)
+                .map(data -> ((LotUpdateDTO) data).getCurrentBid())
+                .toList();
+    }
+
+    private static LotUpdateDTO update(double price) {
+        return new LotUpdateDTO(1L, price, null, "ACTIVE", LocalDateTime.now().plusDays(1));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 s");
+            Thread.sleep(10);
+        }
+    }
+}